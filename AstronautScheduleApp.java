@@ -1,294 +1,6547 @@
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
+import java.util.function.IntToLongFunction;
+import java.util.concurrent.locks.StampedLock;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
 import java.util.logging.Level;
+import java.util.logging.LogRecord;
 import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Scanner;
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
 class AppLogger {
     private static final Logger logger = Logger.getLogger(AppLogger.class.getName());
+    private static AsyncLogHandler asyncHandler;
     static {
         logger.setLevel(Level.INFO); 
+        boolean async = Boolean.getBoolean("astronaut.log.async");
+        List<Handler> handlers = new ArrayList<>();
         ConsoleHandler consoleHandler = new ConsoleHandler();
         consoleHandler.setLevel(Level.INFO);
-        logger.addHandler(consoleHandler);
+        handlers.add(consoleHandler);
         try {
-            FileHandler fileHandler = new FileHandler("astronaut_schedule.log", true); 
+            // With a count above 1, FileHandler rotates through <file>.0, <file>.1, ...
+            FileHandler fileHandler = new FileHandler(System.getProperty("astronaut.log.file", "astronaut_schedule.log"),
+                    Integer.getInteger("astronaut.log.limitBytes", 10 * 1024 * 1024),
+                    Integer.getInteger("astronaut.log.count", 5), true); 
             fileHandler.setLevel(Level.ALL); 
-            logger.addHandler(fileHandler);
+            fileHandler.setEncoding("UTF-8");
+            if (!"xml".equalsIgnoreCase(System.getProperty("astronaut.log.format", "compact"))) {
+                fileHandler.setFormatter(new CompactLogFormatter());
+            }
+            handlers.add(fileHandler);
+        } catch (IOException e) {
+            consoleHandler.publish(new LogRecord(Level.SEVERE, "Failed to set up file logger: " + e));
+        }
+        if (async) {
+            asyncHandler = new AsyncLogHandler(handlers, Integer.getInteger("astronaut.log.queueSize", 8192));
+            logger.addHandler(asyncHandler);
+            // The root logger's console handler would still format and write on the caller's thread.
+            logger.setUseParentHandlers(false);
+            Runtime.getRuntime().addShutdownHook(new Thread(AppLogger::shutdown, "astronaut-log-shutdown"));
+        } else {
+            for (Handler handler : handlers) {
+                logger.addHandler(handler);
+            }
+        }
+    }
+
+    public static Logger getLogger() {
+        return logger;
+    }
+
+    // Writes out anything still queued by the asynchronous handler; safe to call more than once.
+    public static void shutdown() {
+        if (asyncHandler != null) {
+            asyncHandler.close();
+        }
+    }
+}
+
+// Hands log records to a background writer through a bounded queue; callers block only when it is full.
+class AsyncLogHandler extends Handler {
+    private static final LogRecord STOP = new LogRecord(Level.OFF, "stop");
+
+    private final List<Handler> targets;
+    private final BlockingQueue<LogRecord> queue;
+    private final Thread writer;
+    private final AtomicLong enqueued = new AtomicLong();
+    private volatile long written;
+    private volatile boolean closed;
+
+    AsyncLogHandler(List<Handler> targets, int capacity) {
+        this.targets = new ArrayList<>(targets);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        setLevel(Level.ALL);
+        this.writer = new Thread(this::writeLoop, "astronaut-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (!isLoggable(record)) {
+            return;
+        }
+        if (closed) {
+            writeNow(record);
+            return;
+        }
+        // Caller inference walks the stack, so it has to happen on the logging thread.
+        record.getSourceClassName();
+        try {
+            queue.put(record);
+            enqueued.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeNow(record);
+        }
+    }
+
+    // Waits until every record queued so far has been written, then flushes the targets.
+    @Override
+    public void flush() {
+        long target = enqueued.get();
+        while (written < target && writer.isAlive()) {
+            LockSupport.parkNanos(100_000L);
+        }
+        for (Handler handler : targets) {
+            handler.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(STOP);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Handler handler : targets) {
+            handler.close();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            LogRecord record;
+            try {
+                record = queue.take();
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (record == STOP) {
+                break;
+            }
+            writeNow(record);
+            written++;
+        }
+        for (LogRecord record = queue.poll(); record != null; record = queue.poll()) {
+            writeNow(record);
+            written++;
+        }
+        for (Handler handler : targets) {
+            handler.flush();
+        }
+    }
+
+    private void writeNow(LogRecord record) {
+        for (Handler handler : targets) {
+            handler.publish(record);
+        }
+    }
+}
+
+// One record per line: ISO instant, level, source, message and optional stack trace, tab separated.
+// Tabs, newlines and backslashes inside fields are escaped so every record stays on one line.
+class CompactLogFormatter extends Formatter {
+    @Override
+    public String format(LogRecord record) {
+        StringBuilder line = new StringBuilder(96);
+        line.append(record.getInstant()).append('\t').append(record.getLevel().getName()).append('\t');
+        String sourceClass = record.getSourceClassName();
+        if (sourceClass != null) {
+            appendEscaped(line, sourceClass);
+            if (record.getSourceMethodName() != null) {
+                line.append('.');
+                appendEscaped(line, record.getSourceMethodName());
+            }
+        } else if (record.getLoggerName() != null) {
+            appendEscaped(line, record.getLoggerName());
+        }
+        line.append('\t');
+        String message = formatMessage(record);
+        appendEscaped(line, message == null ? "" : message);
+        if (record.getThrown() != null) {
+            StringWriter trace = new StringWriter();
+            record.getThrown().printStackTrace(new PrintWriter(trace));
+            line.append('\t');
+            appendEscaped(line, trace.toString());
+        }
+        return line.append('\n').toString();
+    }
+
+    static void appendEscaped(StringBuilder out, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+    }
+
+    // Splits a compact line back into its unescaped fields.
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>(5);
+        StringBuilder field = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\\' && i + 1 < line.length()) {
+                char next = line.charAt(++i);
+                field.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
+
+// Prints compact or XML (java.util.logging XMLFormatter) log files in readable form, or with
+// --compact rewrites them in the compact format:  java LogReader [--compact] <file>...
+class LogReader {
+    private static final DateTimeFormatter READABLE_TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    interface EntryHandler {
+        void onEntry(Instant time, String level, String source, String message, String thrown);
+
+        // A compact line that cannot be parsed is reported here and skipped.
+        default void onMalformedLine(long lineNumber, String line) {
+            System.err.printf("Skipping malformed log line %d: %s%n", lineNumber, line);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean compact = args.length > 0 && args[0].equals("--compact");
+        int first = compact ? 1 : 0;
+        if (args.length == first) {
+            System.err.println("Usage: java LogReader [--compact] <log file>...");
+            System.exit(2);
+        }
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16));
+        EntryHandler printer = compact ? (time, level, source, message, thrown) -> {
+            StringBuilder line = new StringBuilder(96).append(time).append('\t').append(level).append('\t');
+            CompactLogFormatter.appendEscaped(line, source);
+            line.append('\t');
+            CompactLogFormatter.appendEscaped(line, message);
+            if (thrown != null) {
+                line.append('\t');
+                CompactLogFormatter.appendEscaped(line, thrown);
+            }
+            out.print(line.append('\n'));
+        } : (time, level, source, message, thrown) -> {
+            out.printf("%s %-7s [%s] %s%n", READABLE_TIME.format(time), level, source, message);
+            if (thrown != null) {
+                out.println(thrown.stripTrailing());
+            }
+        };
+        for (int i = first; i < args.length; i++) {
+            read(Paths.get(args[i]), printer);
+        }
+        out.flush();
+    }
+
+    public static void read(Path file, EntryHandler handler) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            // Sniff only the first non-blank character; a first line may be longer than any mark limit.
+            int first;
+            do {
+                reader.mark(1);
+                first = reader.read();
+            } while (first != -1 && Character.isWhitespace(first));
+            reader.reset();
+            if (first == '<') {
+                readXml(reader, handler);
+            } else {
+                readCompact(reader, handler);
+            }
+        }
+    }
+
+    private static void readCompact(BufferedReader reader, EntryHandler handler) throws IOException {
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty()) {
+                continue;
+            }
+            List<String> fields = CompactLogFormatter.parseLine(line);
+            Instant time;
+            try {
+                time = fields.size() < 4 ? null : Instant.parse(fields.get(0));
+            } catch (DateTimeParseException e) {
+                time = null;
+            }
+            if (time == null) {
+                handler.onMalformedLine(lineNumber, line);
+                continue;
+            }
+            handler.onEntry(time, fields.get(1), fields.get(2), fields.get(3), fields.size() > 4 ? fields.get(4) : null);
+        }
+    }
+
+    // Streams <record> elements from every session in the file: a FileHandler appending to an existing
+    // log starts each session with a new <?xml ...?> document. A session cut off mid-record (no closing
+    // </log>) ends quietly; malformed XML anywhere else is an error.
+    private static void readXml(BufferedReader reader, EntryHandler handler) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XmlDocumentReader documents = new XmlDocumentReader(reader);
+        while (documents.nextDocument()) {
+            readXmlDocument(factory, documents, handler);
+        }
+    }
+
+    private static void readXmlDocument(XMLInputFactory factory, XmlDocumentReader document, EntryHandler handler)
+            throws IOException {
+        try {
+            XMLStreamReader xml = factory.createXMLStreamReader(document);
+            Map<String, String> record = new HashMap<>();
+            Map<String, String> frame = new HashMap<>();
+            StringBuilder thrown = new StringBuilder();
+            boolean inException = false;
+            StringBuilder text = new StringBuilder();
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = xml.getLocalName();
+                    text.setLength(0);
+                    if (name.equals("record")) {
+                        record.clear();
+                        thrown.setLength(0);
+                    } else if (name.equals("exception")) {
+                        inException = true;
+                    }
+                } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                    text.append(xml.getText());
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    String name = xml.getLocalName();
+                    if (name.equals("record")) {
+                        emitXmlRecord(record, thrown, handler);
+                    } else if (name.equals("exception")) {
+                        inException = false;
+                    } else if (inException) {
+                        if (name.equals("message")) {
+                            thrown.append(text.toString().trim()).append('\n');
+                        } else if (name.equals("frame")) {
+                            thrown.append("\tat ").append(frame.get("class")).append('.').append(frame.get("method"));
+                            if (frame.containsKey("line")) {
+                                thrown.append(':').append(frame.get("line"));
+                            }
+                            thrown.append('\n');
+                            frame.clear();
+                        } else {
+                            frame.put(name, text.toString().trim());
+                        }
+                    } else {
+                        record.put(name, text.toString());
+                    }
+                    text.setLength(0);
+                }
+            }
+            xml.close();
+        } catch (XMLStreamException e) {
+            Location at = e.getLocation();
+            long line = at == null || at.getLineNumber() < 0 ? -1 : document.fileLine(at.getLineNumber());
+            if (!document.isTruncatedAt(line)) {
+                throw new IOException("Malformed XML log at line " + line, e);
+            }
+            // Truncated tail of a session that was never closed.
+        }
+    }
+
+    // Hands the XML parser one document of the file at a time, splitting before each <?xml prolog
+    // after the first, even one that follows a half-written line.
+    private static final class XmlDocumentReader extends Reader {
+        private final BufferedReader source;
+        private String line = "";
+        private int position;
+        private String nextProlog;
+        private long fileLine;
+        private long firstLine = 1;
+        private long lastContentLine;
+        private boolean content;
+        private boolean ended;
+        private boolean started;
+
+        XmlDocumentReader(BufferedReader source) {
+            this.source = source;
+        }
+
+        // Skips what is left of the current document and starts the next one, if there is one.
+        boolean nextDocument() throws IOException {
+            if (!started) {
+                started = true;
+                return true;
+            }
+            skipRest();
+            if (nextProlog == null) {
+                return false;
+            }
+            line = nextProlog + "\n";
+            position = 0;
+            nextProlog = null;
+            firstLine = fileLine;
+            lastContentLine = fileLine;
+            content = true;
+            ended = false;
+            return true;
+        }
+
+        long fileLine(int documentLine) {
+            return firstLine + documentLine - 1;
+        }
+
+        // An error is a cut-off session only if nothing but blank lines follows it in the document.
+        boolean isTruncatedAt(long errorLine) throws IOException {
+            skipRest();
+            return errorLine >= lastContentLine;
+        }
+
+        private void skipRest() throws IOException {
+            while (advance()) {
+                position = line.length();
+            }
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (position == line.length() && !advance()) {
+                return -1;
+            }
+            int count = Math.min(length, line.length() - position);
+            line.getChars(position, position + count, buffer, offset);
+            position += count;
+            return count;
+        }
+
+        private boolean advance() throws IOException {
+            if (ended) {
+                return false;
+            }
+            String raw = source.readLine();
+            if (raw == null) {
+                ended = true;
+                return false;
+            }
+            fileLine++;
+            int prolog = raw.indexOf("<?xml");
+            String before = prolog < 0 ? raw : raw.substring(0, prolog);
+            if (prolog >= 0 && (content || !before.isBlank())) {
+                nextProlog = raw.substring(prolog);
+                ended = true;
+                raw = before;
+            }
+            if (!raw.isBlank()) {
+                content = true;
+                lastContentLine = fileLine;
+            }
+            line = ended ? raw : raw + "\n";
+            position = 0;
+            return !line.isEmpty();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static void emitXmlRecord(Map<String, String> record, StringBuilder thrown, EntryHandler handler) {
+        Instant time;
+        if (record.containsKey("millis")) {
+            time = Instant.ofEpochMilli(Long.parseLong(record.get("millis").trim()));
+            if (record.containsKey("nanos")) {
+                time = time.plusNanos(Long.parseLong(record.get("nanos").trim()));
+            }
+        } else {
+            time = Instant.parse(record.getOrDefault("date", "1970-01-01T00:00:00Z").trim());
+        }
+        String source = record.containsKey("class")
+                ? record.get("class") + (record.containsKey("method") ? "." + record.get("method") : "")
+                : record.getOrDefault("logger", "");
+        handler.onEntry(time, record.getOrDefault("level", "INFO"), source, record.getOrDefault("message", ""),
+                thrown.length() == 0 ? null : thrown.toString());
+    }
+}
+
+// --- 2. Task Class ---
+class Task {
+    private String description;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private Priority priority;
+    private boolean completed;
+    private boolean readOnly;
+    private final Object identity;
+    public Task(String description, LocalTime startTime, LocalTime endTime, Priority priority) {
+        this(description, startTime, endTime, priority, null);
+    }
+
+    // A store replacing a task after an edit or completion passes the old task's identity along.
+    Task(String description, LocalTime startTime, LocalTime endTime, Priority priority, Object identity) {
+        if (startTime.isAfter(endTime)) {
+            throw new IllegalArgumentException("Start time cannot be after end time.");
+        }
+        this.description = description;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.priority = priority;
+        this.completed = false;
+        this.identity = identity == null ? this : identity;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public Priority getPriority() {
+        return priority;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void markAsCompleted() {
+        checkWritable();
+        this.completed = true;
+    }
+
+    public void updateTask(String description, LocalTime startTime, LocalTime endTime, Priority priority) {
+        checkWritable();
+        if (startTime.isAfter(endTime)) {
+            throw new IllegalArgumentException("Start time cannot be after end time.");
+        }
+        this.description = description;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.priority = priority;
+    }
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    // Equal for every instance a store hands out for the same stored task, across edits and
+    // completions; compare with equals(), not ==.
+    Object identity() {
+        return identity;
+    }
+
+    // Every task a TaskStore holds or hands out is read-only; scheduled tasks change through ScheduleManager.
+    // Stores keep their own copies, so a task passed in to be added stays writable.
+    void makeReadOnly() {
+        readOnly = true;
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("Task \"" + description + "\" is scheduled and read-only; use ScheduleManager to change it.");
+        }
+    }
+
+    public boolean overlapsWith(Task other) {
+        return this.startTime.isBefore(other.endTime) && this.endTime.isAfter(other.startTime);
+    }
+
+    @Override
+    public String toString() {
+        return TaskRenderer.appendTask(new StringBuilder(48), this).toString();
+    }
+}
+
+// Renders tasks as "HH:mm - HH:mm: description [PRIORITY]" from precomputed minute strings.
+final class TaskRenderer {
+    private static final String[] HH_MM = new String[TimeParser.MINUTES_PER_DAY];
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    static {
+        for (int minute = 0; minute < HH_MM.length; minute++) {
+            HH_MM[minute] = String.format("%02d:%02d", minute / 60, minute % 60);
+        }
+    }
+
+    private TaskRenderer() {
+    }
+
+    public static String formatTime(LocalTime time) {
+        return HH_MM[time.getHour() * 60 + time.getMinute()];
+    }
+
+    public static StringBuilder appendTask(StringBuilder out, Task task) {
+        out.append(formatTime(task.getStartTime())).append(" - ").append(formatTime(task.getEndTime()))
+                .append(": ").append(task.getDescription())
+                .append(" [").append(task.getPriority()).append(']');
+        if (task.isCompleted()) {
+            out.append(" [COMPLETED]");
+        }
+        return out;
+    }
+
+    // Numbered listing, one task per line, matching the console menu output.
+    public static StringBuilder appendListing(StringBuilder out, List<Task> tasks) {
+        for (int i = 0; i < tasks.size(); i++) {
+            out.append(i + 1).append(". ");
+            appendTask(out, tasks.get(i)).append(LINE_SEPARATOR);
+        }
+        return out;
+    }
+}
+
+enum Priority {
+    LOW, MEDIUM, HIGH;
+
+    public static Priority fromString(String text) {
+        for (Priority p : Priority.values()) {
+            if (p.name().equalsIgnoreCase(text)) {
+                return p;
+            }
+        }
+        throw new IllegalArgumentException("Invalid priority level: " + text);
+    }
+}
+
+// --- 3. Task Factory Pattern ---
+class TaskFactory {
+    static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    public static Task createTask(String description, String startTimeStr, String endTimeStr, String priorityStr)
+            throws DateTimeParseException, IllegalArgumentException {
+        LocalTime startTime = TimeParser.parse(startTimeStr);
+        LocalTime endTime = TimeParser.parse(endTimeStr);
+        Priority priority = Priority.fromString(priorityStr);
+        return new Task(description, startTime, endTime, priority);
+    }
+}
+
+// Decodes the fixed five-character HH:mm form directly; anything else goes through TaskFactory.TIME_FORMAT.
+final class TimeParser {
+    static final int MINUTES_PER_DAY = 24 * 60;
+    private static final LocalTime[] TIMES_BY_MINUTE = new LocalTime[MINUTES_PER_DAY];
+
+    static {
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            TIMES_BY_MINUTE[minute] = LocalTime.of(minute / 60, minute % 60);
+        }
+    }
+
+    private TimeParser() {
+    }
+
+    public static LocalTime timeOfMinute(int minuteOfDay) {
+        return TIMES_BY_MINUTE[minuteOfDay];
+    }
+
+    public static LocalTime parse(CharSequence text) throws DateTimeParseException {
+        int minute = tryParseMinuteOfDay(text);
+        return minute >= 0 ? TIMES_BY_MINUTE[minute] : LocalTime.parse(text, TaskFactory.TIME_FORMAT);
+    }
+
+    public static int parseMinuteOfDay(CharSequence text) throws DateTimeParseException {
+        int minute = tryParseMinuteOfDay(text);
+        if (minute >= 0) {
+            return minute;
+        }
+        LocalTime time = LocalTime.parse(text, TaskFactory.TIME_FORMAT);
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    // Minute of day for a well-formed "HH:mm", or -1 when the general parser has to decide.
+    static int tryParseMinuteOfDay(CharSequence text) {
+        if (text == null || text.length() != 5 || text.charAt(2) != ':') {
+            return -1;
+        }
+        int h1 = text.charAt(0) - '0';
+        int h2 = text.charAt(1) - '0';
+        int m1 = text.charAt(3) - '0';
+        int m2 = text.charAt(4) - '0';
+        if ((h1 | h2 | m1 | m2) < 0 || h1 > 9 || h2 > 9 || m1 > 5 || m2 > 9) {
+            return -1;
+        }
+        int hour = h1 * 10 + h2;
+        return hour < 24 ? hour * 60 + m1 * 10 + m2 : -1;
+    }
+}
+
+// --- 4. Observer Pattern Interfaces ---
+interface TaskConflictObserver {
+    void onTaskConflict(Task newTask, Task conflictingTask);
+}
+
+interface TaskUpdateObserver {
+    void onTaskUpdate(Task updatedTask);
+}
+
+interface TaskBatchUpdateObserver {
+    void onTaskUpdates(Collection<Task> updatedTasks);
+}
+
+// --- 5. Schedule Manager (Singleton Pattern) ---
+class ScheduleManager {
+    private static ScheduleManager instance;
+    private final TaskStore store;
+    private final List<TaskConflictObserver> conflictObservers;
+    private final List<TaskUpdateObserver> updateObservers;
+    private final StampedLock lock = new StampedLock();
+    private volatile long version;
+    private volatile ScheduleSnapshot snapshot = ScheduleSnapshot.EMPTY;
+    private volatile AsyncObserverDispatcher dispatcher;
+    private ScheduleJournal journal;
+    private ScheduledExecutorService checkpointTimer;
+    private final ScheduleStats stats = new ScheduleStats();
+    private static final Logger logger = AppLogger.getLogger();
+
+    ScheduleManager() {
+        this(new IndexedTaskStore());
+    }
+
+    ScheduleManager(TaskStore store) {
+        this.store = store;
+        // A persistent store may open non-empty; it must not be served the empty initial snapshot.
+        version = store.size() == 0 ? 0L : 1L;
+        conflictObservers = new CopyOnWriteArrayList<>();
+        updateObservers = new CopyOnWriteArrayList<>();
+    }
+
+    public static synchronized ScheduleManager getInstance() {
+        if (instance == null) {
+            instance = new ScheduleManager();
+        }
+        return instance;
+    }
+
+    public void addConflictObserver(TaskConflictObserver observer) {
+        conflictObservers.add(observer);
+    }
+
+    public void addUpdateObserver(TaskUpdateObserver observer) {
+        updateObservers.add(observer);
+    }
+
+    public void setOccupancyBitmapEnabled(boolean enabled) {
+        long stamp = lock.writeLock();
+        try {
+            store.setOccupancyBitmapEnabled(enabled);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean isOccupancyBitmapEnabled() {
+        long stamp = lock.readLock();
+        try {
+            return store.isOccupancyBitmapEnabled();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Rebuilds the schedule from the journal, then records every later mutation in it.
+    // Starts from the newest valid checkpoint in the journal directory and replays only the
+    // journal segments written after it. A million tasks take about 2 s in a fresh JVM, mostly heap
+    // growth and index building; decoding the journal itself is about 0.3 s.
+    public void attachJournal(ScheduleJournal newJournal) throws IOException {
+        long started = System.nanoTime();
+        try {
+            long replayed;
+            ScheduleCheckpoint checkpoint = ScheduleCheckpoint.loadLatest(newJournal.getDirectory());
+            long stamp = lock.writeLock();
+            try {
+                if (journal != null) {
+                    throw new IllegalStateException("A journal is already attached.");
+                }
+                long firstSegment = 0;
+                store.beginBulkLoad();
+                try {
+                    if (checkpoint != null) {
+                        for (Task task : checkpoint.getTasks()) {
+                            store.add(task);
+                        }
+                        firstSegment = checkpoint.getSegmentId();
+                    }
+                    replayed = newJournal.replayFrom(firstSegment, new JournalReplayer());
+                } finally {
+                    store.endBulkLoad();
+                }
+                journal = newJournal;
+                version++;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            logger.info(() -> String.format("Journal attached: %d tasks from checkpoint, replayed %d records from %s",
+                    checkpoint == null ? 0 : checkpoint.getTasks().length, replayed, newJournal.getDirectory()));
+        } finally {
+            stats.record(ScheduleOperation.ATTACH_JOURNAL, started);
+        }
+    }
+
+    // Writes a checkpoint of the current schedule and drops the journal segments it makes redundant.
+    // Writers are held off only while task fields are copied; encoding and fsync happen unlocked.
+    public Path checkpoint() throws IOException {
+        long started = System.nanoTime();
+        try {
+            ScheduleJournal target;
+            long segmentId;
+            String[] descriptions;
+            long[] startNanos;
+            long[] endNanos;
+            byte[] flags;
+            long stamp = lock.writeLock();
+            try {
+                target = journal;
+                if (target == null) {
+                    throw new IllegalStateException("No journal is attached.");
+                }
+                segmentId = target.rollSegment();
+                Task[] tasks = store.toArray();
+                descriptions = new String[tasks.length];
+                startNanos = new long[tasks.length];
+                endNanos = new long[tasks.length];
+                flags = new byte[tasks.length];
+                for (int i = 0; i < tasks.length; i++) {
+                    Task task = tasks[i];
+                    descriptions[i] = task.getDescription();
+                    startNanos[i] = task.getStartTime().toNanoOfDay();
+                    endNanos[i] = task.getEndTime().toNanoOfDay();
+                    flags[i] = ScheduleCheckpoint.flagsOf(task.getPriority(), task.isCompleted());
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            Path file = ScheduleCheckpoint.write(target.getDirectory(), segmentId, descriptions, startNanos, endNanos, flags);
+            ScheduleCheckpoint.prune(target);
+            logger.info(() -> String.format("Checkpoint of %d tasks written to %s", descriptions.length, file));
+            return file;
+        } finally {
+            stats.record(ScheduleOperation.CHECKPOINT, started);
+        }
+    }
+
+    public synchronized void startPeriodicCheckpoints(Duration interval) {
+        stopPeriodicCheckpoints();
+        checkpointTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "schedule-checkpoint");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        checkpointTimer.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.SEVERE, "Periodic checkpoint failed", e);
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    // Waits for a checkpoint already running: interrupting it would close the journal's channel under it.
+    public synchronized void stopPeriodicCheckpoints() {
+        if (checkpointTimer != null) {
+            checkpointTimer.shutdown();
+            try {
+                checkpointTimer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            checkpointTimer = null;
+        }
+    }
+
+    // Applies journal records directly to the store: they were validated when first written.
+    private final class JournalReplayer implements JournalReplayTarget {
+        @Override
+        public void replayAdd(Task task) {
+            store.add(task);
+        }
+
+        @Override
+        public void replayRemove(String description) {
+            store.removeAll(description);
+        }
+
+        @Override
+        public void replayEdit(String oldDescription, String newDescription, LocalTime startTime, LocalTime endTime, Priority priority) {
+            Task task = store.findFirst(oldDescription);
+            if (task != null) {
+                store.update(task, newDescription, startTime, endTime, priority);
+            }
+        }
+
+        @Override
+        public void replayComplete(String description) {
+            Task task = store.findFirst(description);
+            if (task != null) {
+                store.markCompleted(task);
+            }
+        }
+    }
+
+    // Records are appended under the write lock once the store has accepted a change, so the journal
+    // never holds a rejected change and its order matches the store's. This is called after the lock is
+    // released, so concurrent writers share one write and fsync; a change can therefore be seen briefly
+    // before it is durable. If the write fails the change stays in memory, the caller gets the exception
+    // and the journal turns fail-stop, so nothing later is journaled past the gap.
+    private static void commitJournal(ScheduleJournal target, long lsn) {
+        if (target == null) {
+            return;
+        }
+        try {
+            target.commit(lsn);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to write schedule journal", e);
+            throw new UncheckedIOException("Failed to write schedule journal", e);
+        }
+    }
+
+    // Observers are then called from a dedicated thread; 'capacity' must be a power of two.
+    public synchronized void enableAsyncDispatch(int capacity, DispatchBackpressure backpressure) {
+        disableAsyncDispatch();
+        dispatcher = new AsyncObserverDispatcher(conflictObservers, updateObservers, capacity, backpressure);
+    }
+
+    // Drains anything still queued before returning to synchronous notification.
+    public synchronized void disableAsyncDispatch() {
+        AsyncObserverDispatcher current = dispatcher;
+        if (current != null) {
+            dispatcher = null;
+            current.close();
+        }
+    }
+
+    public AsyncObserverDispatcher getAsyncDispatcher() {
+        return dispatcher;
+    }
+
+    // Observers are always called after the lock is released, so they may call back into the manager.
+    // Called once per detected conflict, so it also feeds the conflict counter.
+    private void notifyConflictObservers(Task newTask, Task conflictingTask) {
+        stats.conflict();
+        ObserverNotificationEvent event = new ObserverNotificationEvent();
+        event.begin();
+        long started = System.nanoTime();
+        AsyncObserverDispatcher async = dispatcher;
+        if (async != null) {
+            async.publishConflict(newTask, conflictingTask);
+        } else {
+            for (TaskConflictObserver observer : conflictObservers) {
+                observer.onTaskConflict(newTask, conflictingTask);
+            }
+        }
+        stats.recordObserverDispatch(started);
+        if (event.shouldCommit()) {
+            event.conflict = true;
+            event.observerCount = conflictObservers.size();
+            event.async = async != null;
+            event.commit();
+        }
+    }
+
+    private void notifyUpdateObservers(Task updatedTask) {
+        ObserverNotificationEvent event = new ObserverNotificationEvent();
+        event.begin();
+        long started = System.nanoTime();
+        AsyncObserverDispatcher async = dispatcher;
+        if (async != null) {
+            async.publishUpdate(updatedTask);
+        } else {
+            for (TaskUpdateObserver observer : updateObservers) {
+                observer.onTaskUpdate(updatedTask);
+            }
+        }
+        stats.recordObserverDispatch(started);
+        if (event.shouldCommit()) {
+            event.observerCount = updateObservers.size();
+            event.async = async != null;
+            event.commit();
+        }
+    }
+
+    // store.findConflict, recorded as a ConflictCheckEvent. Caller holds the write lock.
+    private Task findConflict(Task candidate, Task ignore) {
+        ConflictCheckEvent event = new ConflictCheckEvent();
+        event.begin();
+        Task conflictingTask = store.findConflict(candidate, ignore);
+        if (event.shouldCommit()) {
+            event.description = candidate.getDescription();
+            event.candidateCount = 1;
+            event.taskCount = store.size();
+            event.conflictCount = conflictingTask == null ? 0 : 1;
+            event.conflict = conflictingTask != null;
+            event.commit();
+        }
+        return conflictingTask;
+    }
+
+    public void addTask(Task newTask) throws TaskConflictException {
+        ScheduleResult result = tryAddTask(newTask);
+        if (result.isConflict()) {
+            Task existingTask = result.getConflictingTask();
+            logger.warning(() -> String.format("Task conflict detected: New task '%s' conflicts with existing task '%s'",
+                    newTask.getDescription(), existingTask.getDescription()));
+            throw new TaskConflictException("Task conflicts with existing task \"" + existingTask.getDescription() + "\".");
+        }
+    }
+
+    // The try* methods report conflicts and missing tasks as results instead of exceptions and log
+    // them only at FINE, for callers that expect many of them (planners probing candidate slots).
+    public ScheduleResult tryAddTask(Task newTask) {
+        TaskAddEvent event = new TaskAddEvent();
+        event.begin();
+        long started = System.nanoTime();
+        try {
+            Task existingTask;
+            ScheduleJournal log = null;
+            long lsn = 0;
+            long stamp = lock.writeLock();
+            try {
+                existingTask = findConflict(newTask, null);
+                if (existingTask == null) {
+                    store.add(newTask);
+                    version++;
+                    if (journal != null) {
+                        log = journal;
+                        lsn = journal.logAdd(newTask);
+                    }
+                }
+                event.description = newTask.getDescription();
+                event.batchSize = 1;
+                event.taskCount = store.size();
+                event.conflict = existingTask != null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            commitJournal(log, lsn);
+            if (existingTask != null) {
+                notifyConflictObservers(newTask, existingTask);
+                logger.fine(() -> String.format("Task conflict detected: New task '%s' conflicts with existing task '%s'",
+                        newTask.getDescription(), existingTask.getDescription()));
+                return ScheduleResult.conflict(existingTask);
+            }
+            logger.info(() -> String.format("Task added: %s", newTask.getDescription()));
+            return ScheduleResult.SUCCESS;
+        } finally {
+            stats.record(ScheduleOperation.ADD_TASK, started);
+            event.commit();
+        }
+    }
+
+    // Adds a conflict-free batch. If the store rejects a task, the ones already added are taken back so
+    // the batch stays all-or-nothing and nothing reaches the journal.
+    private void addAll(Task[] batch) {
+        int added = 0;
+        try {
+            for (Task task : batch) {
+                store.add(task);
+                added++;
+            }
+        } catch (RuntimeException e) {
+            for (int i = 0; i < added; i++) {
+                removeAdded(batch[i]);
+            }
+            throw e;
+        }
+    }
+
+    // Batch tasks never overlap anything stored, so the description and times pick out exactly the one added.
+    private void removeAdded(Task task) {
+        for (Task removed : store.removeAll(task.getDescription())) {
+            if (!removed.getStartTime().equals(task.getStartTime()) || !removed.getEndTime().equals(task.getEndTime())) {
+                store.add(removed);
+            }
+        }
+    }
+
+    // Adds every task or none. The batch is sorted once; a sweep line finds overlaps inside the batch
+    // and the store finds overlaps with the existing schedule.
+    public void addTasks(Collection<Task> newTasks) throws BatchConflictException {
+        TaskAddEvent event = new TaskAddEvent();
+        event.begin();
+        long started = System.nanoTime();
+        try {
+            Task[] batch = newTasks.toArray(new Task[0]);
+            Arrays.sort(batch, Comparator.comparing(Task::getStartTime));
+            List<TaskConflict> conflicts = findBatchConflicts(batch);
+            ScheduleJournal log = null;
+            long lsn = 0;
+            long stamp = lock.writeLock();
+            try {
+                findExternalConflicts(batch, conflicts);
+                if (conflicts.isEmpty() && batch.length > 0) {
+                    addAll(batch);
+                    version++;
+                    if (journal != null) {
+                        log = journal;
+                        lsn = journal.logAddBatch(batch);
+                    }
+                }
+                event.batchSize = batch.length;
+                event.taskCount = store.size();
+                event.conflict = !conflicts.isEmpty();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            commitJournal(log, lsn);
+            if (!conflicts.isEmpty()) {
+                for (TaskConflict conflict : conflicts) {
+                    notifyConflictObservers(conflict.getNewTask(), conflict.getConflictingTask());
+                }
+                logger.warning(() -> String.format("Batch of %d tasks rejected: %d conflicts detected", batch.length, conflicts.size()));
+                throw new BatchConflictException(conflicts);
+            }
+            logger.info(() -> String.format("Batch added: %d tasks", batch.length));
+        } finally {
+            stats.record(ScheduleOperation.ADD_TASKS, started);
+            event.commit();
+        }
+    }
+
+    private static List<TaskConflict> findBatchConflicts(Task[] sortedBatch) {
+        List<TaskConflict> conflicts = new ArrayList<>();
+        List<Task> active = new ArrayList<>();
+        Set<Task> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Task task : sortedBatch) {
+            if (!seen.add(task)) {
+                throw new IllegalArgumentException("Task appears more than once in batch: " + task.getDescription());
+            }
+            active.removeIf(open -> !open.getEndTime().isAfter(task.getStartTime()));
+            for (Task open : active) {
+                if (task.overlapsWith(open)) {
+                    conflicts.add(new TaskConflict(task, open, true));
+                }
+            }
+            active.add(task);
+        }
+        return conflicts;
+    }
+
+    private void findExternalConflicts(Task[] sortedBatch, List<TaskConflict> conflicts) {
+        ConflictCheckEvent event = new ConflictCheckEvent();
+        event.begin();
+        int before = conflicts.size();
+        List<Task> overlapping = new ArrayList<>();
+        for (Task task : sortedBatch) {
+            overlapping.clear();
+            store.collectConflicts(task, overlapping);
+            for (Task existing : overlapping) {
+                conflicts.add(new TaskConflict(task, existing, false));
+            }
+        }
+        if (event.shouldCommit()) {
+            event.description = sortedBatch.length == 0 ? null : sortedBatch[0].getDescription();
+            event.candidateCount = sortedBatch.length;
+            event.taskCount = store.size();
+            event.conflictCount = conflicts.size() - before;
+            event.conflict = event.conflictCount > 0;
+            event.commit();
+        }
+    }
+
+    public void removeTask(String description) throws TaskNotFoundException {
+        if (tryRemoveTask(description).isNotFound()) {
+            logger.warning(() -> String.format("Attempted to remove non-existent task: %s", description));
+            throw new TaskNotFoundException("Task not found.");
+        }
+    }
+
+    public ScheduleResult tryRemoveTask(String description) {
+        TaskRemoveEvent event = new TaskRemoveEvent();
+        event.begin();
+        long started = System.nanoTime();
+        try {
+            List<Task> removed;
+            ScheduleJournal log = null;
+            long lsn = 0;
+            long stamp = lock.writeLock();
+            try {
+                removed = store.removeAll(description);
+                if (!removed.isEmpty()) {
+                    version++;
+                    if (journal != null) {
+                        log = journal;
+                        lsn = journal.logRemove(description);
+                    }
+                }
+                event.description = description;
+                event.removedCount = removed.size();
+                event.taskCount = store.size();
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            commitJournal(log, lsn);
+            if (removed.isEmpty()) {
+                logger.fine(() -> String.format("Attempted to remove non-existent task: %s", description));
+                stats.notFound();
+                return ScheduleResult.NOT_FOUND;
+            }
+            logger.info(() -> String.format("Task removed: %s", description));
+            return ScheduleResult.SUCCESS;
+        } finally {
+            stats.record(ScheduleOperation.REMOVE_TASK, started);
+            event.commit();
+        }
+    }
+
+    // Latency histograms for each operation plus conflict, not-found and observer dispatch figures.
+    public ScheduleStatsSnapshot stats() {
+        return stats.snapshot();
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Built at most once per version; readers share it instead of copying the schedule on every call.
+    public ScheduleSnapshot snapshot() {
+        long started = System.nanoTime();
+        try {
+            return currentSnapshot();
+        } finally {
+            stats.record(ScheduleOperation.SNAPSHOT, started);
+        }
+    }
+
+    private ScheduleSnapshot currentSnapshot() {
+        long stamp = lock.tryOptimisticRead();
+        ScheduleSnapshot current = snapshot;
+        long currentVersion = version;
+        if (lock.validate(stamp) && current.getVersion() == currentVersion) {
+            return current;
+        }
+        stamp = lock.readLock();
+        try {
+            current = snapshot;
+            if (current.getVersion() != version) {
+                current = new ScheduleSnapshot(version, store.orderedSnapshot());
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public List<Task> viewAllTasks() {
+        long started = System.nanoTime();
+        try {
+            return currentSnapshot().getTasks();
+        } finally {
+            stats.record(ScheduleOperation.VIEW_ALL, started);
+        }
+    }
+
+    public List<Task> viewTasksByPriority(Priority priority) {
+        long started = System.nanoTime();
+        try {
+            long stamp = lock.readLock();
+            try {
+                return store.byPriority(priority);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        } finally {
+            stats.record(ScheduleOperation.VIEW_BY_PRIORITY, started);
+        }
+    }
+    public void editTask(String oldDescription, String newDescription, String startTimeStr, String endTimeStr, String priorityStr)
+            throws TaskNotFoundException, DateTimeParseException, IllegalArgumentException, TaskConflictException {
+        ScheduleResult result = tryEditTask(oldDescription, newDescription, startTimeStr, endTimeStr, priorityStr);
+        if (result.isNotFound()) {
+            logger.warning(() -> String.format("Attempted to edit non-existent task: %s", oldDescription));
+            throw new TaskNotFoundException("Task to edit not found.");
+        }
+        if (result.isConflict()) {
+            String conflictingDescription = result.getConflictingTask().getDescription();
+            logger.warning(() -> String.format("Edit conflict detected: Updated task '%s' conflicts with existing task '%s'",
+                    newDescription, conflictingDescription));
+            throw new TaskConflictException("Edited task conflicts with existing task \"" + conflictingDescription + "\".");
+        }
+    }
+
+    // Malformed times or priority still throw; only conflicts and missing tasks become results.
+    public ScheduleResult tryEditTask(String oldDescription, String newDescription, String startTimeStr, String endTimeStr, String priorityStr)
+            throws DateTimeParseException, IllegalArgumentException {
+        TaskEditEvent event = new TaskEditEvent();
+        event.begin();
+        long started = System.nanoTime();
+        try {
+            Task taskToEdit;
+            Task tempTask = null;
+            Task conflictingTask = null;
+            ScheduleJournal log = null;
+            long lsn = 0;
+            long stamp = lock.writeLock();
+            try {
+                taskToEdit = store.findFirst(oldDescription);
+                if (taskToEdit != null) {
+                    LocalTime newStartTime = TimeParser.parse(startTimeStr);
+                    LocalTime newEndTime = TimeParser.parse(endTimeStr);
+                    Priority newPriority = Priority.fromString(priorityStr);
+                    tempTask = new Task(newDescription, newStartTime, newEndTime, newPriority);
+                    conflictingTask = findConflict(tempTask, taskToEdit);
+                    if (conflictingTask == null) {
+                        taskToEdit = store.update(taskToEdit, newDescription, newStartTime, newEndTime, newPriority);
+                        version++;
+                        if (journal != null) {
+                            log = journal;
+                            lsn = journal.logEdit(oldDescription, newDescription, newStartTime, newEndTime, newPriority);
+                        }
+                    }
+                }
+                event.description = oldDescription;
+                event.newDescription = newDescription;
+                event.taskCount = store.size();
+                event.found = taskToEdit != null;
+                event.conflict = conflictingTask != null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            commitJournal(log, lsn);
+
+            if (taskToEdit == null) {
+                logger.fine(() -> String.format("Attempted to edit non-existent task: %s", oldDescription));
+                stats.notFound();
+                return ScheduleResult.NOT_FOUND;
+            }
+            if (conflictingTask != null) {
+                notifyConflictObservers(tempTask, conflictingTask);
+                String conflictingDescription = conflictingTask.getDescription();
+                logger.fine(() -> String.format("Edit conflict detected: Updated task '%s' conflicts with existing task '%s'",
+                        newDescription, conflictingDescription));
+                return ScheduleResult.conflict(conflictingTask);
+            }
+            notifyUpdateObservers(taskToEdit);
+            logger.info(() -> String.format("Task edited: %s -> %s", oldDescription, newDescription));
+            return ScheduleResult.SUCCESS;
+        } finally {
+            stats.record(ScheduleOperation.EDIT_TASK, started);
+            event.commit();
+        }
+    }
+    public void markTaskAsCompleted(String description) throws TaskNotFoundException {
+        if (tryMarkTaskAsCompleted(description).isNotFound()) {
+            logger.warning(() -> String.format("Attempted to mark non-existent task as completed: %s", description));
+            throw new TaskNotFoundException("Task not found.");
+        }
+    }
+
+    public ScheduleResult tryMarkTaskAsCompleted(String description) {
+        TaskCompleteEvent event = new TaskCompleteEvent();
+        event.begin();
+        long started = System.nanoTime();
+        try {
+            Task taskToComplete;
+            ScheduleJournal log = null;
+            long lsn = 0;
+            long stamp = lock.writeLock();
+            try {
+                taskToComplete = store.findFirst(description);
+                if (taskToComplete != null) {
+                    taskToComplete = store.markCompleted(taskToComplete);
+                    version++;
+                    if (journal != null) {
+                        log = journal;
+                        lsn = journal.logComplete(description);
+                    }
+                }
+                event.description = description;
+                event.taskCount = store.size();
+                event.found = taskToComplete != null;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            commitJournal(log, lsn);
+            if (taskToComplete == null) {
+                logger.fine(() -> String.format("Attempted to mark non-existent task as completed: %s", description));
+                stats.notFound();
+                return ScheduleResult.NOT_FOUND;
+            }
+            notifyUpdateObservers(taskToComplete);
+            logger.info(() -> String.format("Task marked as completed: %s", description));
+            return ScheduleResult.SUCCESS;
+        } finally {
+            stats.record(ScheduleOperation.MARK_COMPLETED, started);
+            event.commit();
+        }
+    }
+}
+
+// --- Crew Schedule Registry (one independent ScheduleManager per crew member) ---
+final class CrewTask {
+    private final String crewMember;
+    private final Task task;
+
+    CrewTask(String crewMember, Task task) {
+        this.crewMember = crewMember;
+        this.task = task;
+    }
+
+    public String getCrewMember() {
+        return crewMember;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    @Override
+    public String toString() {
+        return crewMember + ": " + task;
+    }
+}
+
+class CrewScheduleRegistry {
+    private final ConcurrentMap<String, ScheduleManager> schedules = new ConcurrentHashMap<>();
+    private final List<TaskConflictObserver> conflictObservers = new CopyOnWriteArrayList<>();
+    private final List<TaskUpdateObserver> updateObservers = new CopyOnWriteArrayList<>();
+    private final Executor fanOutExecutor;
+
+    public CrewScheduleRegistry() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public CrewScheduleRegistry(Executor fanOutExecutor) {
+        this.fanOutExecutor = fanOutExecutor;
+    }
+
+    public ScheduleManager forCrewMember(String crewMember) {
+        ScheduleManager schedule = schedules.get(crewMember);
+        return schedule != null ? schedule : createSchedule(crewMember);
+    }
+
+    // Shares the add*Observer lock: an observer added concurrently is either copied into the new
+    // schedule here or attached to it there, never missed by both.
+    private synchronized ScheduleManager createSchedule(String crewMember) {
+        return schedules.computeIfAbsent(crewMember, key -> {
+            ScheduleManager schedule = new ScheduleManager();
+            for (TaskConflictObserver observer : conflictObservers) {
+                schedule.addConflictObserver(observer);
+            }
+            for (TaskUpdateObserver observer : updateObservers) {
+                schedule.addUpdateObserver(observer);
+            }
+            return schedule;
+        });
+    }
+
+    public ScheduleManager removeCrewMember(String crewMember) {
+        return schedules.remove(crewMember);
+    }
+
+    public Set<String> crewMembers() {
+        return Collections.unmodifiableSet(schedules.keySet());
+    }
+
+    // Observers registered here are attached to every current and future crew schedule.
+    public synchronized void addConflictObserver(TaskConflictObserver observer) {
+        conflictObservers.add(observer);
+        for (ScheduleManager schedule : schedules.values()) {
+            schedule.addConflictObserver(observer);
+        }
+    }
+
+    public synchronized void addUpdateObserver(TaskUpdateObserver observer) {
+        updateObservers.add(observer);
+        for (ScheduleManager schedule : schedules.values()) {
+            schedule.addUpdateObserver(observer);
+        }
+    }
+
+    public List<CrewTask> viewAllTasks() {
+        return fanOut(ScheduleManager::viewAllTasks);
+    }
+
+    public List<CrewTask> viewTasksByPriority(Priority priority) {
+        return fanOut(schedule -> schedule.viewTasksByPriority(priority));
+    }
+
+    // Queries every crew schedule in parallel and merges the per-crew results, each already ordered, by start time.
+    private List<CrewTask> fanOut(Function<ScheduleManager, List<Task>> query) {
+        List<String> members = new ArrayList<>(schedules.keySet());
+        List<CompletableFuture<List<Task>>> futures = new ArrayList<>(members.size());
+        for (String member : members) {
+            ScheduleManager schedule = schedules.get(member);
+            futures.add(schedule == null
+                    ? CompletableFuture.completedFuture(Collections.emptyList())
+                    : CompletableFuture.supplyAsync(() -> query.apply(schedule), fanOutExecutor));
+        }
+
+        PriorityQueue<MergeCursor> heads = new PriorityQueue<>();
+        int total = 0;
+        for (int i = 0; i < members.size(); i++) {
+            List<Task> tasks = futures.get(i).join();
+            total += tasks.size();
+            if (!tasks.isEmpty()) {
+                heads.add(new MergeCursor(members.get(i), tasks));
+            }
+        }
+        List<CrewTask> merged = new ArrayList<>(total);
+        while (!heads.isEmpty()) {
+            MergeCursor head = heads.poll();
+            merged.add(new CrewTask(head.crewMember, head.current()));
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    private static final class MergeCursor implements Comparable<MergeCursor> {
+        final String crewMember;
+        final List<Task> tasks;
+        int position;
+
+        MergeCursor(String crewMember, List<Task> tasks) {
+            this.crewMember = crewMember;
+            this.tasks = tasks;
+        }
+
+        Task current() {
+            return tasks.get(position);
+        }
+
+        boolean advance() {
+            return ++position < tasks.size();
+        }
+
+        @Override
+        public int compareTo(MergeCursor other) {
+            int c = current().getStartTime().compareTo(other.current().getStartTime());
+            return c != 0 ? c : crewMember.compareTo(other.crewMember);
+        }
+    }
+}
+// --- Task Importer (streaming CSV/TSV bulk load) ---
+final class ImportReport {
+    static final int MAX_RECORDED_ERRORS = 1000;
+
+    private long rowsRead;
+    private long tasksImported;
+    private long errorCount;
+    private long elapsedNanos;
+    private final List<String> errors = new ArrayList<>();
+
+    void rowRead() {
+        rowsRead++;
+    }
+
+    void imported(int count) {
+        tasksImported += count;
+    }
+
+    void error(long lineNumber, String message) {
+        errorCount++;
+        if (errors.size() < MAX_RECORDED_ERRORS) {
+            errors.add("Line " + lineNumber + ": " + message);
+        }
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getTasksImported() {
+        return tasksImported;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    // The first MAX_RECORDED_ERRORS per-row errors; getErrorCount() has the full total.
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d rows read, %d tasks imported, %d errors in %.1f ms (%.0f rows/s)",
+                rowsRead, tasksImported, errorCount, elapsedNanos / 1_000_000.0, getRowsPerSecond());
+    }
+}
+
+class TaskImporter {
+    static final int DEFAULT_BATCH_SIZE = 1024;
+    private static final int READ_BUFFER_CHARS = 1 << 16;
+    private static final Logger logger = AppLogger.getLogger();
+
+    private final ScheduleManager scheduleManager;
+    private final int batchSize;
+
+    public TaskImporter(ScheduleManager scheduleManager) {
+        this(scheduleManager, DEFAULT_BATCH_SIZE);
+    }
+
+    public TaskImporter(ScheduleManager scheduleManager, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.scheduleManager = scheduleManager;
+        this.batchSize = batchSize;
+    }
+
+    // Rows are "description,start,end,priority"; files ending in .tsv are tab separated.
+    public ImportReport importFile(Path file) throws IOException {
+        char delimiter = file.getFileName().toString().toLowerCase().endsWith(".tsv") ? '\t' : ',';
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), READ_BUFFER_CHARS)) {
+            return importFrom(reader, delimiter);
+        }
+    }
+
+    public ImportReport importFrom(BufferedReader reader, char delimiter) throws IOException {
+        ImportReport report = new ImportReport();
+        long startNanos = System.nanoTime();
+        List<Task> batch = new ArrayList<>(batchSize);
+        Map<Task, Long> lineNumbers = new IdentityHashMap<>();
+        List<String> fields = new ArrayList<>(4);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty() || (lineNumber == 1 && isHeader(line, delimiter))) {
+                continue;
+            }
+            report.rowRead();
+            try {
+                splitRow(line, delimiter, fields);
+                if (fields.size() != 4) {
+                    throw new IllegalArgumentException("Expected 4 fields but found " + fields.size() + ".");
+                }
+                Task task = TaskFactory.createTask(fields.get(0), fields.get(1).trim(), fields.get(2).trim(), fields.get(3).trim());
+                batch.add(task);
+                lineNumbers.put(task, lineNumber);
+            } catch (DateTimeParseException e) {
+                report.error(lineNumber, "Invalid time format: " + e.getParsedString());
+            } catch (IllegalArgumentException e) {
+                report.error(lineNumber, e.getMessage());
+            }
+            if (batch.size() >= batchSize) {
+                flush(batch, lineNumbers, report);
+            }
+        }
+        flush(batch, lineNumbers, report);
+        report.finish(System.nanoTime() - startNanos);
+        logger.info(() -> String.format("Task import finished: %s", report));
+        return report;
+    }
+
+    // Conflicting rows are reported and dropped, and the rest of the batch is retried. Rows are resolved
+    // greedily in start order: a row is kept if it misses the existing schedule and every row kept so
+    // far, so no row is dropped because of one that was itself dropped.
+    private void flush(List<Task> batch, Map<Task, Long> lineNumbers, ImportReport report) {
+        while (!batch.isEmpty()) {
+            try {
+                scheduleManager.addTasks(batch);
+                report.imported(batch.size());
+                break;
+            } catch (BatchConflictException e) {
+                Map<Task, Task> existing = new IdentityHashMap<>();
+                for (TaskConflict conflict : e.getConflicts()) {
+                    if (!conflict.isWithinBatch()) {
+                        existing.putIfAbsent(conflict.getNewTask(), conflict.getConflictingTask());
+                    }
+                }
+                batch.sort(Comparator.comparing(Task::getStartTime));
+                List<Task> kept = new ArrayList<>(batch.size());
+                List<Task> active = new ArrayList<>();
+                for (Task task : batch) {
+                    Task blocker = existing.get(task);
+                    String kind = "existing";
+                    if (blocker == null) {
+                        active.removeIf(open -> !open.getEndTime().isAfter(task.getStartTime()));
+                        for (Task open : active) {
+                            if (task.overlapsWith(open)) {
+                                blocker = open;
+                                kind = "imported";
+                                break;
+                            }
+                        }
+                    }
+                    if (blocker != null) {
+                        report.error(lineNumbers.get(task), "Task conflicts with " + kind + " task \""
+                                + blocker.getDescription() + "\".");
+                    } else {
+                        kept.add(task);
+                        active.add(task);
+                    }
+                }
+                batch.clear();
+                batch.addAll(kept);
+            }
+        }
+        batch.clear();
+        lineNumbers.clear();
+    }
+
+    private static boolean isHeader(String line, char delimiter) {
+        int end = line.indexOf(delimiter);
+        String first = (end < 0 ? line : line.substring(0, end)).trim();
+        return first.equalsIgnoreCase("description") || first.equalsIgnoreCase("\"description\"");
+    }
+
+    // Splits one row; double-quoted fields may contain the delimiter and "" for a literal quote.
+    static void splitRow(String line, char delimiter, List<String> fields) {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field.");
+        }
+        fields.add(field.toString());
+    }
+}
+// Stackless: a conflict is an expected outcome and the message carries everything useful.
+class TaskConflictException extends Exception {
+    public TaskConflictException(String message) {
+        super(message, null, false, false);
+    }
+}
+
+enum ScheduleOutcome {
+    SUCCESS, CONFLICT, NOT_FOUND
+}
+
+// Result of the ScheduleManager try* methods. Success and not-found are shared instances, so only a
+// conflict allocates.
+final class ScheduleResult {
+    static final ScheduleResult SUCCESS = new ScheduleResult(ScheduleOutcome.SUCCESS, null);
+    static final ScheduleResult NOT_FOUND = new ScheduleResult(ScheduleOutcome.NOT_FOUND, null);
+
+    private final ScheduleOutcome outcome;
+    private final Task conflictingTask;
+
+    private ScheduleResult(ScheduleOutcome outcome, Task conflictingTask) {
+        this.outcome = outcome;
+        this.conflictingTask = conflictingTask;
+    }
+
+    static ScheduleResult conflict(Task conflictingTask) {
+        return new ScheduleResult(ScheduleOutcome.CONFLICT, conflictingTask);
+    }
+
+    public ScheduleOutcome getOutcome() {
+        return outcome;
+    }
+
+    public boolean isSuccess() {
+        return outcome == ScheduleOutcome.SUCCESS;
+    }
+
+    public boolean isConflict() {
+        return outcome == ScheduleOutcome.CONFLICT;
+    }
+
+    public boolean isNotFound() {
+        return outcome == ScheduleOutcome.NOT_FOUND;
+    }
+
+    // The existing task that blocked the operation; null unless this is a conflict.
+    public Task getConflictingTask() {
+        return conflictingTask;
+    }
+
+    @Override
+    public String toString() {
+        return conflictingTask == null ? outcome.name() : outcome + " with \"" + conflictingTask.getDescription() + "\"";
+    }
+}
+
+final class TaskConflict {
+    private final Task newTask;
+    private final Task conflictingTask;
+    private final boolean withinBatch;
+
+    TaskConflict(Task newTask, Task conflictingTask, boolean withinBatch) {
+        this.newTask = newTask;
+        this.conflictingTask = conflictingTask;
+        this.withinBatch = withinBatch;
+    }
+
+    public Task getNewTask() {
+        return newTask;
+    }
+
+    public Task getConflictingTask() {
+        return conflictingTask;
+    }
+
+    public boolean isWithinBatch() {
+        return withinBatch;
+    }
+
+    @Override
+    public String toString() {
+        return "\"" + newTask.getDescription() + "\" conflicts with "
+                + (withinBatch ? "batch task" : "existing task") + " \"" + conflictingTask.getDescription() + "\"";
+    }
+}
+
+class BatchConflictException extends TaskConflictException {
+    private static final long serialVersionUID = 1L;
+
+    private final List<TaskConflict> conflicts;
+
+    public BatchConflictException(List<TaskConflict> conflicts) {
+        super("Batch rejected: " + conflicts.size() + " conflict(s), first: " + conflicts.get(0) + ".");
+        this.conflicts = Collections.unmodifiableList(new ArrayList<>(conflicts));
+    }
+
+    public List<TaskConflict> getConflicts() {
+        return conflicts;
+    }
+}
+
+class TaskNotFoundException extends Exception {
+    public TaskNotFoundException(String message) {
+        super(message, null, false, false);
+    }
+}
+class ConsoleNotifier implements TaskConflictObserver, TaskUpdateObserver, TaskBatchUpdateObserver {
+    @Override
+    public void onTaskConflict(Task newTask, Task conflictingTask) {
+        System.err.println("\nALERT: New task '" + newTask.getDescription() + "' conflicts with existing task '" + conflictingTask.getDescription() + "'!");
+    }
+
+    @Override
+    public void onTaskUpdate(Task updatedTask) {
+        System.out.println("\nINFO: Task '" + updatedTask.getDescription() + "' has been updated/completed.");
+    }
+
+    @Override
+    public void onTaskUpdates(Collection<Task> updatedTasks) {
+        if (updatedTasks.size() == 1) {
+            onTaskUpdate(updatedTasks.iterator().next());
+            return;
+        }
+        StringBuilder message = new StringBuilder("\nINFO: ").append(updatedTasks.size()).append(" tasks have been updated/completed: ");
+        int shown = 0;
+        for (Task task : updatedTasks) {
+            if (shown == 10) {
+                message.append(", ...");
+                break;
+            }
+            message.append(shown++ == 0 ? "'" : ", '").append(task.getDescription()).append('\'');
+        }
+        System.out.println(message);
+    }
+}
+
+// Collapses repeated updates to the same task, keeping the latest state, and hands them over as one
+// batch, either when 'window' has passed since the first pending update, when 'maxBatchSize'
+// distinct tasks are pending, or when flush() is called. Tasks are matched by Task.identity(), since
+// stores hand out a new instance for every update.
+class CoalescingUpdateObserver implements TaskUpdateObserver, AutoCloseable {
+    private static final Logger logger = AppLogger.getLogger();
+
+    private final TaskBatchUpdateObserver delegate;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService timer;
+    private final Object deliveryLock = new Object();
+    private Map<Object, Task> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private long received;
+    private long delivered;
+
+    public CoalescingUpdateObserver(TaskBatchUpdateObserver delegate, Duration window, int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + maxBatchSize);
+        }
+        this.delegate = delegate;
+        this.windowNanos = window == null ? 0L : window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.timer = windowNanos > 0 ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "schedule-update-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    // Without a window, updates are only delivered at batch-size or explicit flush() boundaries.
+    public CoalescingUpdateObserver(TaskBatchUpdateObserver delegate, int maxBatchSize) {
+        this(delegate, null, maxBatchSize);
+    }
+
+    @Override
+    public void onTaskUpdate(Task updatedTask) {
+        boolean full;
+        synchronized (this) {
+            received++;
+            pending.put(updatedTask.identity(), updatedTask);
+            full = pending.size() >= maxBatchSize;
+            if (!full && timer != null && scheduledFlush == null) {
+                scheduledFlush = timer.schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    public void flush() {
+        synchronized (deliveryLock) {
+            Map<Object, Task> batch;
+            synchronized (this) {
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new LinkedHashMap<>();
+                delivered += batch.size();
+            }
+            try {
+                delegate.onTaskUpdates(Collections.unmodifiableCollection(batch.values()));
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Batch update observer failed", e);
+            }
+        }
+    }
+
+    public synchronized long getReceivedUpdates() {
+        return received;
+    }
+
+    public synchronized long getDeliveredUpdates() {
+        return delivered;
+    }
+
+    @Override
+    public void close() {
+        flush();
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+}
+
+// --- Asynchronous Observer Dispatch (bounded lock-free ring drained by one consumer thread) ---
+enum DispatchBackpressure {
+    BLOCK, DROP_OLDEST, COALESCE
+}
+
+final class ObserverLagStats {
+    private final long delivered;
+    private final long lastLagNanos;
+    private final long maxLagNanos;
+    private final long totalLagNanos;
+
+    ObserverLagStats(long delivered, long lastLagNanos, long maxLagNanos, long totalLagNanos) {
+        this.delivered = delivered;
+        this.lastLagNanos = lastLagNanos;
+        this.maxLagNanos = maxLagNanos;
+        this.totalLagNanos = totalLagNanos;
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+
+    public long getLastLagNanos() {
+        return lastLagNanos;
+    }
+
+    public long getMaxLagNanos() {
+        return maxLagNanos;
+    }
+
+    public long getMeanLagNanos() {
+        return delivered == 0 ? 0 : totalLagNanos / delivered;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("delivered=%d, lag last=%.3f ms, mean=%.3f ms, max=%.3f ms",
+                delivered, lastLagNanos / 1e6, getMeanLagNanos() / 1e6, maxLagNanos / 1e6);
+    }
+}
+
+class AsyncObserverDispatcher implements AutoCloseable {
+    private static final Logger logger = AppLogger.getLogger();
+
+    private static final class Event {
+        final Task task;
+        final Task conflictingTask;
+        final long enqueuedNanos;
+
+        Event(Task task, Task conflictingTask) {
+            this.task = task;
+            this.conflictingTask = conflictingTask;
+            this.enqueuedNanos = System.nanoTime();
+        }
+
+        boolean isConflict() {
+            return conflictingTask != null;
+        }
+    }
+
+    // Only the consumer thread writes these; readers take a consistent-enough copy via snapshot().
+    private static final class LagCounter {
+        volatile long delivered;
+        volatile long lastLagNanos;
+        volatile long maxLagNanos;
+        volatile long totalLagNanos;
+
+        void record(long lagNanos) {
+            lastLagNanos = lagNanos;
+            if (lagNanos > maxLagNanos) {
+                maxLagNanos = lagNanos;
+            }
+            totalLagNanos += lagNanos;
+            delivered++;
+        }
+
+        ObserverLagStats snapshot() {
+            return new ObserverLagStats(delivered, lastLagNanos, maxLagNanos, totalLagNanos);
+        }
+    }
+
+    private final List<TaskConflictObserver> conflictObservers;
+    private final List<TaskUpdateObserver> updateObservers;
+    private final DispatchBackpressure backpressure;
+    private final int mask;
+    private final AtomicReferenceArray<Event> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    // Latest state of each task with an update queued, keyed by Task.identity(); COALESCE only.
+    private final ConcurrentMap<Object, Task> pendingUpdates = new ConcurrentHashMap<>();
+    private final Map<Object, LagCounter> lagByObserver = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final Thread consumer;
+    private volatile boolean consumerParked;
+    private volatile boolean running = true;
+
+    AsyncObserverDispatcher(List<TaskConflictObserver> conflictObservers, List<TaskUpdateObserver> updateObservers,
+                            int capacity, DispatchBackpressure backpressure) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two of at least 2: " + capacity);
+        }
+        this.conflictObservers = conflictObservers;
+        this.updateObservers = updateObservers;
+        this.backpressure = backpressure;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.consumer = new Thread(this::drainLoop, "schedule-observer-dispatch");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    public void publishConflict(Task newTask, Task conflictingTask) {
+        publish(new Event(newTask, conflictingTask));
+    }
+
+    public void publishUpdate(Task updatedTask) {
+        if (backpressure == DispatchBackpressure.COALESCE && pendingUpdates.put(updatedTask.identity(), updatedTask) != null) {
+            coalesced.increment();
+            return;
+        }
+        publish(new Event(updatedTask, null));
+    }
+
+    private void publish(Event event) {
+        if (!running) {
+            deliver(event);
+            return;
+        }
+        while (!offer(event)) {
+            if (!running) {
+                deliver(event);
+                return;
+            }
+            if (backpressure == DispatchBackpressure.DROP_OLDEST) {
+                Event oldest = poll();
+                if (oldest != null) {
+                    if (!oldest.isConflict()) {
+                        pendingUpdates.remove(oldest.task.identity());
+                    }
+                    dropped.increment();
+                }
+            } else {
+                wakeConsumer();
+                LockSupport.parkNanos(10_000L);
+            }
+        }
+        wakeConsumer();
+        if (!running) {
+            // Closed while we were enqueueing; the consumer may already have exited.
+            for (Event pending = poll(); pending != null; pending = poll()) {
+                deliver(pending);
+            }
+        }
+    }
+
+    public int queuedEvents() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public long droppedEvents() {
+        return dropped.sum();
+    }
+
+    public long coalescedEvents() {
+        return coalesced.sum();
+    }
+
+    public DispatchBackpressure getBackpressure() {
+        return backpressure;
+    }
+
+    public Map<Object, ObserverLagStats> lagStats() {
+        Map<Object, ObserverLagStats> stats = new IdentityHashMap<>();
+        lagByObserver.forEach((observer, counter) -> stats.put(observer, counter.snapshot()));
+        return stats;
+    }
+
+    // Stops accepting events and waits for everything already queued to be delivered.
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Bounded MPMC queue (Vyukov): each slot's sequence says whether it is free for the lap a producer
+    // or consumer is on, so both sides claim slots with a single CAS.
+    private boolean offer(Event event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long delta = sequences.get(index) - position;
+            if (delta == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, event);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (delta < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    private Event poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long delta = sequences.get(index) - (position + 1);
+            if (delta == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    Event event = slots.getAndSet(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return event;
+                }
+                position = head.get();
+            } else if (delta < 0) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    private void wakeConsumer() {
+        if (consumerParked) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    private void drainLoop() {
+        while (true) {
+            Event event = poll();
+            if (event == null) {
+                if (!running) {
+                    return;
+                }
+                consumerParked = true;
+                if (tail.get() == head.get() && running) {
+                    LockSupport.parkNanos(1_000_000L);
+                }
+                consumerParked = false;
+                continue;
+            }
+            deliver(event);
+        }
+    }
+
+    private void deliver(Event event) {
+        if (event.isConflict()) {
+            for (TaskConflictObserver observer : conflictObservers) {
+                long lag = System.nanoTime() - event.enqueuedNanos;
+                try {
+                    observer.onTaskConflict(event.task, event.conflictingTask);
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Conflict observer failed", e);
+                }
+                lagByObserver.computeIfAbsent(observer, key -> new LagCounter()).record(lag);
+            }
+        } else {
+            Task task = event.task;
+            if (backpressure == DispatchBackpressure.COALESCE) {
+                Task latest = pendingUpdates.remove(task.identity());
+                if (latest != null) {
+                    task = latest;
+                }
+            }
+            for (TaskUpdateObserver observer : updateObservers) {
+                long lag = System.nanoTime() - event.enqueuedNanos;
+                try {
+                    observer.onTaskUpdate(task);
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Update observer failed", e);
+                }
+                lagByObserver.computeIfAbsent(observer, key -> new LagCounter()).record(lag);
+            }
+        }
+    }
+}
+
+// --- Schedule Statistics (lock-free latency histograms and counters) ---
+enum ScheduleOperation {
+    ADD_TASK, ADD_TASKS, REMOVE_TASK, EDIT_TASK, MARK_COMPLETED, VIEW_ALL, VIEW_BY_PRIORITY, SNAPSHOT,
+    ATTACH_JOURNAL, CHECKPOINT
+}
+
+// Log-linear buckets in the style of HdrHistogram: exact below 128 ns, then 64 buckets per power of
+// two, so any recorded value is reported within 1.6% of what was measured. Recording takes no lock:
+// an atomic bucket increment, a LongAdder add and, only while a new maximum is being set, a CAS loop.
+final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS >>> 1;
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        totalNanos.add(value);
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    // Counts are read one bucket at a time, so a snapshot taken under load may be a few records off.
+    public HistogramSnapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new HistogramSnapshot(copy, count, totalNanos.sum(), maxNanos.get());
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + (int) (value >>> shift) - HALF_SUB_BUCKETS;
+    }
+
+    // Largest value that lands in bucket 'index'.
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long sub = (index - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+}
+
+final class HistogramSnapshot {
+    private final long[] counts;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    HistogramSnapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+        this.counts = counts;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    // Value at 'percentile' (0-100), reported as the top of its bucket and never above the maximum.
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValueOf(i), maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+}
+
+final class ScheduleStats {
+    private final Map<ScheduleOperation, LatencyHistogram> latencies = new EnumMap<>(ScheduleOperation.class);
+    private final LatencyHistogram observerDispatch = new LatencyHistogram();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder notFound = new LongAdder();
+
+    ScheduleStats() {
+        for (ScheduleOperation operation : ScheduleOperation.values()) {
+            latencies.put(operation, new LatencyHistogram());
+        }
+    }
+
+    void record(ScheduleOperation operation, long startNanos) {
+        latencies.get(operation).recordSince(startNanos);
+    }
+
+    void recordObserverDispatch(long startNanos) {
+        observerDispatch.recordSince(startNanos);
+    }
+
+    void conflict() {
+        conflicts.increment();
+    }
+
+    void notFound() {
+        notFound.increment();
+    }
+
+    ScheduleStatsSnapshot snapshot() {
+        Map<ScheduleOperation, HistogramSnapshot> copy = new EnumMap<>(ScheduleOperation.class);
+        for (Map.Entry<ScheduleOperation, LatencyHistogram> entry : latencies.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return new ScheduleStatsSnapshot(copy, observerDispatch.snapshot(), conflicts.sum(), notFound.sum());
+    }
+}
+
+final class ScheduleStatsSnapshot {
+    private final Map<ScheduleOperation, HistogramSnapshot> latencies;
+    private final HistogramSnapshot observerDispatch;
+    private final long conflicts;
+    private final long notFound;
+
+    ScheduleStatsSnapshot(Map<ScheduleOperation, HistogramSnapshot> latencies, HistogramSnapshot observerDispatch,
+                          long conflicts, long notFound) {
+        this.latencies = Collections.unmodifiableMap(latencies);
+        this.observerDispatch = observerDispatch;
+        this.conflicts = conflicts;
+        this.notFound = notFound;
+    }
+
+    public HistogramSnapshot getLatency(ScheduleOperation operation) {
+        return latencies.get(operation);
+    }
+
+    public Map<ScheduleOperation, HistogramSnapshot> getLatencies() {
+        return latencies;
+    }
+
+    public HistogramSnapshot getObserverDispatch() {
+        return observerDispatch;
+    }
+
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    public long getNotFound() {
+        return notFound;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-18s %9s %10s %10s %10s %10s %10s%n", "operation", "count", "mean us", "p50 us", "p99 us", "p99.9 us", "max us"));
+        for (Map.Entry<ScheduleOperation, HistogramSnapshot> entry : latencies.entrySet()) {
+            appendRow(out, entry.getKey().name().toLowerCase(), entry.getValue());
+        }
+        appendRow(out, "observer dispatch", observerDispatch);
+        return out.append(String.format("conflicts=%d, not found=%d", conflicts, notFound)).toString();
+    }
+
+    private static void appendRow(StringBuilder out, String label, HistogramSnapshot histogram) {
+        out.append(String.format("%-18s %9d %10.1f %10.1f %10.1f %10.1f %10.1f%n", label, histogram.getCount(),
+                histogram.getMeanNanos() / 1e3, histogram.percentile(50) / 1e3, histogram.percentile(99) / 1e3,
+                histogram.percentile(99.9) / 1e3, histogram.getMaxNanos() / 1e3));
+    }
+}
+
+// --- Flight Recorder Events (visible in JMC under "Astronaut Schedule") ---
+// Each event is begun and committed around the operation it describes. While no recording has the
+// event enabled, commit() is a no-op and the JIT removes the allocation.
+@Name("astronaut.TaskAdd")
+@Label("Task Add")
+@Category("Astronaut Schedule")
+@Description("ScheduleManager.addTask or addTasks")
+final class TaskAddEvent extends Event {
+    @Label("Description")
+    String description;
+
+    @Label("Tasks Added")
+    @Description("Tasks in the request: 1 for addTask, the batch size for addTasks")
+    int batchSize;
+
+    @Label("Task Count")
+    @Description("Tasks in the schedule after the operation")
+    int taskCount;
+
+    @Label("Conflict")
+    boolean conflict;
+}
+
+@Name("astronaut.TaskEdit")
+@Label("Task Edit")
+@Category("Astronaut Schedule")
+final class TaskEditEvent extends Event {
+    @Label("Description")
+    String description;
+
+    @Label("New Description")
+    String newDescription;
+
+    @Label("Task Count")
+    @Description("Tasks in the schedule after the operation")
+    int taskCount;
+
+    @Label("Found")
+    boolean found;
+
+    @Label("Conflict")
+    boolean conflict;
+}
+
+@Name("astronaut.TaskRemove")
+@Label("Task Remove")
+@Category("Astronaut Schedule")
+final class TaskRemoveEvent extends Event {
+    @Label("Description")
+    String description;
+
+    @Label("Tasks Removed")
+    int removedCount;
+
+    @Label("Task Count")
+    @Description("Tasks in the schedule after the operation")
+    int taskCount;
+}
+
+@Name("astronaut.TaskComplete")
+@Label("Task Complete")
+@Category("Astronaut Schedule")
+final class TaskCompleteEvent extends Event {
+    @Label("Description")
+    String description;
+
+    @Label("Task Count")
+    @Description("Tasks in the schedule after the operation")
+    int taskCount;
+
+    @Label("Found")
+    boolean found;
+}
+
+@Name("astronaut.ConflictCheck")
+@Label("Conflict Check")
+@Category("Astronaut Schedule")
+@Description("Lookup of overlapping tasks in the store, made under the write lock")
+@StackTrace(false)
+final class ConflictCheckEvent extends Event {
+    @Label("Description")
+    @Description("Candidate task, or the first task of a batch")
+    String description;
+
+    @Label("Candidates")
+    int candidateCount;
+
+    @Label("Task Count")
+    @Description("Tasks in the schedule searched")
+    int taskCount;
+
+    @Label("Conflicts Found")
+    int conflictCount;
+
+    @Label("Conflict")
+    boolean conflict;
+}
+
+@Name("astronaut.ObserverNotification")
+@Label("Observer Notification")
+@Category("Astronaut Schedule")
+@Description("Delivery to observers, or hand-off to the asynchronous dispatcher")
+@StackTrace(false)
+final class ObserverNotificationEvent extends Event {
+    @Label("Conflict")
+    @Description("True for conflict notifications, false for task updates")
+    boolean conflict;
+
+    @Label("Observers")
+    int observerCount;
+
+    @Label("Asynchronous")
+    boolean async;
+}
+
+// --- Schedule Journal (append-only binary write-ahead log of mutations) ---
+enum FsyncPolicy {
+    ALWAYS, INTERVAL, NEVER
+}
+
+interface JournalReplayTarget {
+    void replayAdd(Task task);
+
+    void replayRemove(String description);
+
+    void replayEdit(String oldDescription, String newDescription, LocalTime startTime, LocalTime endTime, Priority priority);
+
+    void replayComplete(String description);
+}
+
+// Records are [int payload length][int CRC32C of payload][payload], the payload starting with an op
+// code. Appends go to an in-memory buffer; commit() writes everything buffered so far in one go, so
+// committers that append before one of them flushes share a single write and fsync. After a failed write the journal is
+// fail-stop: every later commit throws.
+class ScheduleJournal implements AutoCloseable {
+    static final byte OP_ADD = 1;
+    static final byte OP_REMOVE = 2;
+    static final byte OP_EDIT = 3;
+    static final byte OP_COMPLETE = 4;
+    static final byte OP_ADD_BATCH = 5;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int HEADER_BYTES = 8;
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final Path directory;
+    private final FsyncPolicy policy;
+    private final Object flushLock = new Object();
+    private final CRC32C crc = new CRC32C();
+    private final ScheduledExecutorService syncTimer;
+    private FileChannel channel;
+    private long segmentId;
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+    private long appendedLsn;
+    private volatile long committedLsn;
+    private volatile IOException failure;
+    private boolean replayed;
+
+    private ScheduleJournal(Path directory, FsyncPolicy policy, long syncIntervalMillis) throws IOException {
+        this.directory = directory;
+        this.policy = policy;
+        Files.createDirectories(directory);
+        List<Long> segments = listSegments();
+        segmentId = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+        channel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        if (policy == FsyncPolicy.INTERVAL) {
+            syncTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "schedule-journal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            syncTimer.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            syncTimer = null;
+        }
+    }
+
+    public static ScheduleJournal open(Path directory, FsyncPolicy policy) throws IOException {
+        return open(directory, policy, 100);
+    }
+
+    // 'syncIntervalMillis' only applies to FsyncPolicy.INTERVAL.
+    public static ScheduleJournal open(Path directory, FsyncPolicy policy, long syncIntervalMillis) throws IOException {
+        return new ScheduleJournal(directory, policy, syncIntervalMillis);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public FsyncPolicy getPolicy() {
+        return policy;
+    }
+
+    public synchronized long getSegmentId() {
+        return segmentId;
+    }
+
+    public synchronized long logAdd(Task task) {
+        int start = begin(OP_ADD);
+        try {
+            putTask(task);
+            return end(start);
+        } catch (RuntimeException e) {
+            abort(start);
+            throw e;
+        }
+    }
+
+    public synchronized long logAddBatch(Task[] tasks) {
+        int start = begin(OP_ADD_BATCH);
+        try {
+            ensureCapacity(4);
+            pending.putInt(tasks.length);
+            for (Task task : tasks) {
+                putTask(task);
+            }
+            return end(start);
+        } catch (RuntimeException e) {
+            abort(start);
+            throw e;
+        }
+    }
+
+    public synchronized long logRemove(String description) {
+        int start = begin(OP_REMOVE);
+        try {
+            putString(description);
+            return end(start);
+        } catch (RuntimeException e) {
+            abort(start);
+            throw e;
+        }
+    }
+
+    public synchronized long logEdit(String oldDescription, String newDescription, LocalTime startTime, LocalTime endTime, Priority priority) {
+        int start = begin(OP_EDIT);
+        try {
+            putString(oldDescription);
+            putString(newDescription);
+            ensureCapacity(17);
+            pending.putLong(startTime.toNanoOfDay()).putLong(endTime.toNanoOfDay()).put((byte) priority.ordinal());
+            return end(start);
+        } catch (RuntimeException e) {
+            abort(start);
+            throw e;
+        }
+    }
+
+    public synchronized long logComplete(String description) {
+        int start = begin(OP_COMPLETE);
+        try {
+            putString(description);
+            return end(start);
+        } catch (RuntimeException e) {
+            abort(start);
+            throw e;
+        }
+    }
+
+    // Makes every record up to 'lsn' durable according to the fsync policy.
+    public void commit(long lsn) throws IOException {
+        if (committedLsn >= lsn) {
+            return;
+        }
+        synchronized (flushLock) {
+            if (committedLsn >= lsn) {
+                return;
+            }
+            if (failure != null) {
+                throw new IOException("Journal stopped after an earlier write failure", failure);
+            }
+            ByteBuffer toWrite;
+            long upTo;
+            synchronized (this) {
+                toWrite = pending;
+                pending = spare;
+                spare = null;
+                upTo = appendedLsn;
+            }
+            try {
+                toWrite.flip();
+                while (toWrite.hasRemaining()) {
+                    channel.write(toWrite);
+                }
+                if (policy == FsyncPolicy.ALWAYS) {
+                    channel.force(false);
+                }
+                committedLsn = upTo;
+            } catch (IOException e) {
+                // The segment may now end in a partial record; refuse further writes rather than append after it.
+                failure = e;
+                throw e;
+            } finally {
+                toWrite.clear();
+                synchronized (this) {
+                    spare = toWrite;
+                }
+            }
+        }
+    }
+
+    // Applies every intact record, in order, to 'target'. A torn record at the end of the newest
+    // segment (a crash mid-write) is cut off; damage anywhere else is reported as an error.
+    public long replay(JournalReplayTarget target) throws IOException {
+        return replayFrom(0, target);
+    }
+
+    public long replayFrom(long firstSegmentId, JournalReplayTarget target) throws IOException {
+        synchronized (flushLock) {
+            synchronized (this) {
+                if (replayed || appendedLsn > 0) {
+                    throw new IllegalStateException("Journal can only be replayed once, before any appends.");
+                }
+                replayed = true;
+            }
+            long records = 0;
+            for (long id : listSegments()) {
+                if (id >= firstSegmentId) {
+                    records += replaySegment(id, id == segmentId, target);
+                }
+            }
+            return records;
+        }
+    }
+
+    // Starts a new segment; every record appended afterwards lands in it. Returns the new segment id.
+    public long rollSegment() throws IOException {
+        synchronized (flushLock) {
+            commit(currentLsn());
+            synchronized (this) {
+                channel.force(false);
+                channel.close();
+                segmentId++;
+                channel = FileChannel.open(segmentPath(segmentId), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                channel.position(channel.size());
+                return segmentId;
+            }
+        }
+    }
+
+    // Deletes whole segments older than 'segmentId'.
+    public void deleteSegmentsBefore(long segmentId) throws IOException {
+        for (long id : listSegments()) {
+            if (id < segmentId) {
+                Files.deleteIfExists(segmentPath(id));
+            }
+        }
+    }
+
+    public synchronized long currentLsn() {
+        return appendedLsn;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (syncTimer != null) {
+            // An interrupted sync would close the channel and leave the journal fail-stop; let it finish.
+            syncTimer.shutdown();
+            try {
+                syncTimer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (flushLock) {
+            try {
+                commit(currentLsn());
+                channel.force(false);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    private void syncQuietly() {
+        if (failure != null) {
+            return;
+        }
+        try {
+            synchronized (flushLock) {
+                commit(currentLsn());
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            AppLogger.getLogger().log(Level.SEVERE, "Journal sync failed", e);
+        }
+    }
+
+    private int begin(byte op) {
+        ensureCapacity(HEADER_BYTES + 1);
+        int start = pending.position();
+        pending.position(start + HEADER_BYTES);
+        pending.put(op);
+        return start;
+    }
+
+    // Drops a record that failed to encode (a null field, say), so no half-written record is ever flushed.
+    private void abort(int start) {
+        pending.position(start);
+    }
+
+    private long end(int start) {
+        int payloadLength = pending.position() - start - HEADER_BYTES;
+        crc.reset();
+        crc.update(pending.array(), start + HEADER_BYTES, payloadLength);
+        pending.putInt(start, payloadLength);
+        pending.putInt(start + 4, (int) crc.getValue());
+        appendedLsn += HEADER_BYTES + payloadLength;
+        return appendedLsn;
+    }
+
+    private void putTask(Task task) {
+        putString(task.getDescription());
+        ensureCapacity(18);
+        pending.putLong(task.getStartTime().toNanoOfDay())
+                .putLong(task.getEndTime().toNanoOfDay())
+                .put((byte) task.getPriority().ordinal())
+                .put((byte) (task.isCompleted() ? 1 : 0));
+    }
+
+    private void putString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(4 + bytes.length);
+        pending.putInt(bytes.length).put(bytes);
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (pending.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+    }
+
+    private long replaySegment(long id, boolean newest, JournalReplayTarget target) throws IOException {
+        Path path = segmentPath(id);
+        long size = Files.size(path);
+        long records = 0;
+        long validBytes = 0;
+        CRC32C check = new CRC32C();
+        byte[] payload = new byte[256];
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 20))) {
+            while (true) {
+                int length;
+                int expectedCrc;
+                try {
+                    length = in.readInt();
+                    expectedCrc = in.readInt();
+                    // A length running past the end of the file is a torn or garbled header, not a record to allocate for.
+                    if (length <= 0 || length > size - validBytes - HEADER_BYTES) {
+                        break;
+                    }
+                    if (payload.length < length) {
+                        payload = new byte[Math.max(length, payload.length * 2)];
+                    }
+                    in.readFully(payload, 0, length);
+                } catch (EOFException e) {
+                    break;
+                }
+                check.reset();
+                check.update(payload, 0, length);
+                if ((int) check.getValue() != expectedCrc) {
+                    break;
+                }
+                apply(ByteBuffer.wrap(payload, 0, length), target);
+                validBytes += HEADER_BYTES + length;
+                records++;
+            }
+        }
+        if (validBytes < size) {
+            if (!newest) {
+                throw new IOException("Corrupt journal segment " + path + " at byte " + validBytes);
+            }
+            synchronized (this) {
+                channel.truncate(validBytes);
+                channel.position(validBytes);
+            }
+            long discarded = size - validBytes;
+            AppLogger.getLogger().warning(() -> String.format("Discarded %d bytes of torn journal tail in %s", discarded, path));
+        }
+        return records;
+    }
+
+    private static void apply(ByteBuffer record, JournalReplayTarget target) throws IOException {
+        byte op = record.get();
+        switch (op) {
+            case OP_ADD:
+                target.replayAdd(readTask(record));
+                break;
+            case OP_ADD_BATCH:
+                for (int count = record.getInt(); count > 0; count--) {
+                    target.replayAdd(readTask(record));
+                }
+                break;
+            case OP_REMOVE:
+                target.replayRemove(readString(record));
+                break;
+            case OP_EDIT:
+                target.replayEdit(readString(record), readString(record), readTime(record), readTime(record),
+                        PRIORITIES[record.get()]);
+                break;
+            case OP_COMPLETE:
+                target.replayComplete(readString(record));
+                break;
+            default:
+                throw new IOException("Unknown journal record type: " + op);
+        }
+    }
+
+    static Task readTask(ByteBuffer record) {
+        String description = readString(record);
+        LocalTime startTime = readTime(record);
+        LocalTime endTime = readTime(record);
+        Task task = new Task(description, startTime, endTime, PRIORITIES[record.get()]);
+        if (record.get() != 0) {
+            task.markAsCompleted();
+        }
+        // Decoded tasks go straight into a store, which keeps read-only tasks without copying them.
+        task.makeReadOnly();
+        return task;
+    }
+
+    static String readString(ByteBuffer record) {
+        int length = record.getInt();
+        String value = new String(record.array(), record.arrayOffset() + record.position(), length, StandardCharsets.UTF_8);
+        record.position(record.position() + length);
+        return value;
+    }
+
+    static LocalTime readTime(ByteBuffer record) {
+        long nanoOfDay = record.getLong();
+        return nanoOfDay % 60_000_000_000L == 0
+                ? TimeParser.timeOfMinute((int) (nanoOfDay / 60_000_000_000L))
+                : LocalTime.ofNanoOfDay(nanoOfDay);
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private List<Long> listSegments() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    ids.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours.
+                }
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+}
+
+// --- Schedule Checkpoints (checksummed binary snapshots that bound journal replay) ---
+// Layout: [int magic][int format][long first journal segment to replay][int task count][tasks...]
+// [int CRC32C of everything before it]. Files are written to a temporary name and moved into place.
+final class ScheduleCheckpoint {
+    private static final int MAGIC = 0x41534348;
+    private static final int FORMAT = 1;
+    private static final String PREFIX = "checkpoint-";
+    private static final String SUFFIX = ".snap";
+    private static final int RETAINED = 2;
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final long segmentId;
+    private final Task[] tasks;
+
+    private ScheduleCheckpoint(long segmentId, Task[] tasks) {
+        this.segmentId = segmentId;
+        this.tasks = tasks;
+    }
+
+    public long getSegmentId() {
+        return segmentId;
+    }
+
+    public Task[] getTasks() {
+        return tasks;
+    }
+
+    static byte flagsOf(Priority priority, boolean completed) {
+        return (byte) (priority.ordinal() | (completed ? 0x80 : 0));
+    }
+
+    static Path write(Path directory, long segmentId, String[] descriptions, long[] startNanos, long[] endNanos, byte[] flags)
+            throws IOException {
+        byte[][] encoded = new byte[descriptions.length][];
+        int bytes = 20 + 4;
+        for (int i = 0; i < descriptions.length; i++) {
+            encoded[i] = descriptions[i].getBytes(StandardCharsets.UTF_8);
+            bytes += 4 + encoded[i].length + 17;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        buffer.putInt(MAGIC).putInt(FORMAT).putLong(segmentId).putInt(descriptions.length);
+        for (int i = 0; i < descriptions.length; i++) {
+            buffer.putInt(encoded[i].length).put(encoded[i]).putLong(startNanos[i]).putLong(endNanos[i]).put(flags[i]);
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+
+        Path file = directory.resolve(String.format("%s%016d%s", PREFIX, segmentId, SUFFIX));
+        Path temp = directory.resolve(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return file;
+    }
+
+    // Returns the newest checkpoint that passes its checksum, or null when there is none.
+    static ScheduleCheckpoint loadLatest(Path directory) throws IOException {
+        List<Long> ids = list(directory);
+        for (int i = ids.size() - 1; i >= 0; i--) {
+            Path file = path(directory, ids.get(i));
+            ScheduleCheckpoint checkpoint = read(file);
+            if (checkpoint != null) {
+                return checkpoint;
+            }
+            AppLogger.getLogger().warning(() -> "Skipping damaged checkpoint " + file);
+        }
+        return null;
+    }
+
+    // Keeps the newest checkpoints, then deletes journal segments that none of them needs.
+    static void prune(ScheduleJournal journal) throws IOException {
+        Path directory = journal.getDirectory();
+        List<Long> ids = list(directory);
+        if (ids.isEmpty()) {
+            return;
+        }
+        int firstKept = Math.max(0, ids.size() - RETAINED);
+        for (int i = 0; i < firstKept; i++) {
+            Files.deleteIfExists(path(directory, ids.get(i)));
+        }
+        journal.deleteSegmentsBefore(ids.get(firstKept));
+    }
+
+    private static ScheduleCheckpoint read(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < 24) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, bytes.length - 4);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if ((int) crc.getValue() != buffer.getInt(bytes.length - 4)
+                || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) {
+            return null;
+        }
+        long segmentId = buffer.getLong();
+        Task[] tasks = new Task[buffer.getInt()];
+        for (int i = 0; i < tasks.length; i++) {
+            String description = ScheduleJournal.readString(buffer);
+            LocalTime startTime = ScheduleJournal.readTime(buffer);
+            LocalTime endTime = ScheduleJournal.readTime(buffer);
+            byte flags = buffer.get();
+            tasks[i] = new Task(description, startTime, endTime, PRIORITIES[flags & 0x7f]);
+            if ((flags & 0x80) != 0) {
+                tasks[i].markAsCompleted();
+            }
+            tasks[i].makeReadOnly();
+        }
+        return new ScheduleCheckpoint(segmentId, tasks);
+    }
+
+    private static Path path(Path directory, long id) {
+        return directory.resolve(String.format("%s%016d%s", PREFIX, id, SUFFIX));
+    }
+
+    private static List<Long> list(Path directory) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                try {
+                    ids.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours.
+                }
+            }
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+}
+
+// --- Task Stores (storage backends behind ScheduleManager) ---
+// Implementations are not thread-safe; ScheduleManager calls them under its lock.
+interface TaskStore {
+    int size();
+
+    // Earliest-starting stored task overlapping the candidate, skipping 'ignore'.
+    Task findConflict(Task candidate, Task ignore);
+
+    void collectConflicts(Task candidate, List<Task> out);
+
+    // Stores what the task holds now; the caller's instance is never kept or made read-only.
+    void add(Task task);
+
+    Task findFirst(String description);
+
+    List<Task> removeAll(String description);
+
+    // Every Task a store holds or returns is read-only, and stores never change one they have handed
+    // out: update and markCompleted return the task as now stored, a different instance, so
+    // snapshots and earlier results keep what they saw.
+    Task update(Task task, String description, LocalTime startTime, LocalTime endTime, Priority priority);
+
+    Task markCompleted(Task task);
+
+    Task[] toArray();
+
+    // Every task in start order as an unmodifiable list that never changes afterwards. It may share
+    // structure with the store, which then copies what it shares before changing it.
+    List<Task> orderedSnapshot();
+
+    List<Task> byPriority(Priority priority);
+
+    void setOccupancyBitmapEnabled(boolean enabled);
+
+    boolean isOccupancyBitmapEnabled();
+
+    // Between these calls only add, findFirst, removeAll, update and markCompleted are used, so a
+    // store may defer its conflict and priority indexes and rebuild them once at the end.
+    void beginBulkLoad();
+
+    void endBulkLoad();
+}
+
+// Identity of a task held in a slot-based store. The generation changes whenever the slot is freed,
+// so a task later stored in the same slot gets a different key.
+final class StoredTaskKey {
+    private final TaskStore owner;
+    private final int slot;
+    private final int generation;
+
+    StoredTaskKey(TaskStore owner, int slot, int generation) {
+        this.owner = owner;
+        this.slot = slot;
+        this.generation = generation;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof StoredTaskKey)) {
+            return false;
+        }
+        StoredTaskKey key = (StoredTaskKey) other;
+        return owner == key.owner && slot == key.slot && generation == key.generation;
+    }
+
+    @Override
+    public int hashCode() {
+        return (System.identityHashCode(owner) * 31 + slot) * 31 + generation;
+    }
+}
+
+// Keeps the caller's Task objects, indexed by time, description and priority. A task becomes
+// read-only once added; edits and completions swap in a new instance.
+class IndexedTaskStore implements TaskStore {
+    private final TaskTimeline tasks = new TaskTimeline();
+    private final TaskIntervalTree intervalIndex = new TaskIntervalTree();
+    private final DescriptionIndex descriptionIndex = new DescriptionIndex();
+    private final Map<Priority, TaskTimeline> priorityIndex = new EnumMap<>(Priority.class);
+    private MinuteOccupancyMap occupancyMap;
+    private boolean bulkLoading;
+
+    IndexedTaskStore() {
+        for (Priority priority : Priority.values()) {
+            priorityIndex.put(priority, new TaskTimeline());
+        }
+    }
+
+    @Override
+    public int size() {
+        return tasks.size();
+    }
+
+    @Override
+    public Task findConflict(Task candidate, Task ignore) {
+        if (occupancyMap != null && occupancyMap.canAnswer(candidate)) {
+            return occupancyMap.findConflict(candidate, ignore);
+        }
+        return intervalIndex.findOverlap(candidate, ignore);
+    }
+
+    @Override
+    public void collectConflicts(Task candidate, List<Task> out) {
+        intervalIndex.collectOverlaps(candidate.getStartTime().toNanoOfDay(), candidate.getEndTime().toNanoOfDay(), out);
+    }
+
+    // Stores a read-only copy, so the caller's task stays theirs to change. A task that is already
+    // read-only (a replacement built here, a decoded one, or one handed back after removal) is stored as
+    // is, unless this store holds that very instance: a zero-length task never conflicts with itself,
+    // and each index must hold every instance once.
+    @Override
+    public void add(Task task) {
+        if (descriptionIndex.contains(task) || !task.isReadOnly()) {
+            Task copy = new Task(task.getDescription(), task.getStartTime(), task.getEndTime(), task.getPriority());
+            if (task.isCompleted()) {
+                copy.markAsCompleted();
+            }
+            copy.makeReadOnly();
+            task = copy;
+        }
+        tasks.add(task);
+        descriptionIndex.add(task);
+        if (bulkLoading) {
+            return;
+        }
+        intervalIndex.insert(task);
+        priorityIndex.get(task.getPriority()).add(task);
+        if (occupancyMap != null) {
+            occupancyMap.add(task);
+        }
+    }
+
+    @Override
+    public Task findFirst(String description) {
+        return descriptionIndex.findFirst(description);
+    }
+
+    @Override
+    public List<Task> removeAll(String description) {
+        List<Task> removed = descriptionIndex.removeAll(description);
+        for (Task task : removed) {
+            unindex(task);
+        }
+        return removed;
+    }
+
+    @Override
+    public Task update(Task task, String description, LocalTime startTime, LocalTime endTime, Priority priority) {
+        descriptionIndex.remove(task);
+        unindex(task);
+        Task updated = new Task(description, startTime, endTime, priority, task.identity());
+        if (task.isCompleted()) {
+            updated.markAsCompleted();
+        }
+        updated.makeReadOnly();
+        add(updated);
+        return updated;
+    }
+
+    // Same times, description and priority, so the replacement takes the old task's place in every
+    // index and keeps its position among tasks that start together.
+    @Override
+    public Task markCompleted(Task task) {
+        if (task.isCompleted()) {
+            return task;
+        }
+        Task completed = new Task(task.getDescription(), task.getStartTime(), task.getEndTime(), task.getPriority(),
+                task.identity());
+        completed.markAsCompleted();
+        completed.makeReadOnly();
+        tasks.replace(task, completed);
+        descriptionIndex.replace(task, completed);
+        if (!bulkLoading) {
+            intervalIndex.replace(task, completed);
+            priorityIndex.get(task.getPriority()).replace(task, completed);
+            if (occupancyMap != null) {
+                occupancyMap.replace(task, completed);
+            }
+        }
+        return completed;
+    }
+
+    @Override
+    public Task[] toArray() {
+        return tasks.toArray();
+    }
+
+    @Override
+    public List<Task> orderedSnapshot() {
+        return tasks.snapshot();
+    }
+
+    @Override
+    public List<Task> byPriority(Priority priority) {
+        return priorityIndex.get(priority).toList();
+    }
+
+    @Override
+    public void setOccupancyBitmapEnabled(boolean enabled) {
+        if (!enabled) {
+            occupancyMap = null;
+        } else if (occupancyMap == null) {
+            MinuteOccupancyMap map = new MinuteOccupancyMap();
+            for (Task task : tasks) {
+                map.add(task);
+            }
+            occupancyMap = map;
+        }
+    }
+
+    @Override
+    public boolean isOccupancyBitmapEnabled() {
+        return occupancyMap != null;
+    }
+
+    // Only the timeline and description index are kept up to date until endBulkLoad().
+    @Override
+    public void beginBulkLoad() {
+        bulkLoading = true;
+    }
+
+    @Override
+    public void endBulkLoad() {
+        if (!bulkLoading) {
+            return;
+        }
+        bulkLoading = false;
+        Task[] ordered = tasks.toArray();
+        intervalIndex.build(ordered);
+        for (TaskTimeline timeline : priorityIndex.values()) {
+            timeline.clear();
+        }
+        for (Task task : ordered) {
+            priorityIndex.get(task.getPriority()).add(task);
+        }
+        if (occupancyMap != null) {
+            occupancyMap = null;
+            setOccupancyBitmapEnabled(true);
+        }
+    }
+
+    private void unindex(Task task) {
+        tasks.remove(task);
+        if (bulkLoading) {
+            return;
+        }
+        intervalIndex.remove(task);
+        priorityIndex.get(task.getPriority()).remove(task);
+        if (occupancyMap != null) {
+            occupancyMap.remove(task);
+        }
+    }
+}
+
+// --- Schedule Snapshot (immutable, versioned view of the task list) ---
+// Stores replace rather than modify the tasks they hold, so a snapshot never changes after it is built.
+// The indexed store hands over its timeline chunks rather than a copy of every task.
+final class ScheduleSnapshot {
+    static final ScheduleSnapshot EMPTY = new ScheduleSnapshot(0L, Collections.emptyList());
+
+    private final long version;
+    private final List<Task> tasks;
+
+    ScheduleSnapshot(long version, List<Task> orderedTasks) {
+        this.version = version;
+        this.tasks = orderedTasks;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public int size() {
+        return tasks.size();
+    }
+
+    public boolean isEmpty() {
+        return tasks.isEmpty();
+    }
+
+    // True when a view rendered at 'version' is stale and needs re-rendering.
+    public boolean hasChangedSince(long version) {
+        return this.version != version;
+    }
+}
+
+// --- Task Timeline (chunked list ordered by start time) ---
+// Chunks are copy-on-write once a snapshot has seen them: each records the epoch it was created in,
+// and snapshot() starts a new epoch, so a chunk from an older one is copied before it is changed.
+class TaskTimeline implements Iterable<Task> {
+    private static final int MAX_CHUNK = 128;
+
+    private static final class Chunk extends ArrayList<Task> {
+        private static final long serialVersionUID = 1L;
+
+        final long epoch;
+
+        Chunk(long epoch) {
+            super(MAX_CHUNK);
+            this.epoch = epoch;
+        }
+
+        Chunk(long epoch, Collection<Task> tasks) {
+            super(Math.max(tasks.size(), MAX_CHUNK));
+            this.epoch = epoch;
+            addAll(tasks);
+        }
+    }
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int size;
+    // Readers under a shared lock may race on the increment in snapshot(); any value above every
+    // existing chunk's epoch will do.
+    private volatile long epoch;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void add(Task task) {
+        long start = startOf(task);
+        if (chunks.isEmpty()) {
+            Chunk chunk = new Chunk(epoch);
+            chunk.add(task);
+            chunks.add(chunk);
+            size = 1;
+            return;
+        }
+        int chunkIndex = chunks.size() - 1;
+        Chunk chunk = chunks.get(chunkIndex);
+        if (startOf(chunk.get(chunk.size() - 1)) <= start) {
+            // Appending in start order (loads, replays) skips both binary searches.
+            chunk = writable(chunkIndex);
+            chunk.add(task);
+        } else {
+            chunkIndex = chunkFor(start);
+            chunk = writable(chunkIndex);
+            chunk.add(upperBound(chunk, start), task);
+        }
+        size++;
+        if (chunk.size() > MAX_CHUNK) {
+            List<Task> tail = chunk.subList(MAX_CHUNK / 2, chunk.size());
+            chunks.add(chunkIndex + 1, new Chunk(epoch, tail));
+            tail.clear();
+        }
+    }
+
+    public boolean remove(Task task) {
+        if (chunks.isEmpty()) {
+            return false;
+        }
+        long start = startOf(task);
+        for (int c = firstChunkFrom(start); c < chunks.size(); c++) {
+            List<Task> chunk = chunks.get(c);
+            for (int i = lowerBound(chunk, start); i < chunk.size(); i++) {
+                Task candidate = chunk.get(i);
+                if (candidate == task) {
+                    if (chunk.size() == 1) {
+                        chunks.remove(c);
+                    } else {
+                        writable(c).remove(i);
+                    }
+                    size--;
+                    return true;
+                }
+                if (startOf(candidate) != start) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    // 'replacement' must start at the same time as 'task'; it takes over the same position.
+    public boolean replace(Task task, Task replacement) {
+        if (chunks.isEmpty()) {
+            return false;
+        }
+        long start = startOf(task);
+        for (int c = firstChunkFrom(start); c < chunks.size(); c++) {
+            List<Task> chunk = chunks.get(c);
+            for (int i = lowerBound(chunk, start); i < chunk.size(); i++) {
+                Task candidate = chunk.get(i);
+                if (candidate == task) {
+                    writable(c).set(i, replacement);
+                    return true;
+                }
+                if (startOf(candidate) != start) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        chunks.clear();
+        size = 0;
+    }
+
+    // An unmodifiable view of the current tasks that later changes to the timeline do not reach. Costs
+    // one reference per chunk; each shared chunk is copied once, by the first change that touches it.
+    public List<Task> snapshot() {
+        Chunk[] shared = chunks.toArray(new Chunk[0]);
+        epoch++;
+        return new ChunkedList(shared, size);
+    }
+
+    public List<Task> toList() {
+        List<Task> result = new ArrayList<>(size);
+        for (List<Task> chunk : chunks) {
+            result.addAll(chunk);
+        }
+        return result;
+    }
+
+    public Task[] toArray() {
+        Task[] result = new Task[size];
+        int i = 0;
+        for (List<Task> chunk : chunks) {
+            for (Task task : chunk) {
+                result[i++] = task;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<Task>() {
+            private int chunkIndex;
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return chunkIndex < chunks.size();
+            }
+
+            @Override
+            public Task next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<Task> chunk = chunks.get(chunkIndex);
+                Task task = chunk.get(index++);
+                if (index == chunk.size()) {
+                    chunkIndex++;
+                    index = 0;
+                }
+                return task;
+            }
+        };
+    }
+
+    private Chunk writable(int chunkIndex) {
+        Chunk chunk = chunks.get(chunkIndex);
+        if (chunk.epoch != epoch) {
+            chunk = new Chunk(epoch, chunk);
+            chunks.set(chunkIndex, chunk);
+        }
+        return chunk;
+    }
+
+    private static long startOf(Task task) {
+        return task.getStartTime().toNanoOfDay();
+    }
+
+    private static final class ChunkedList extends AbstractList<Task> implements RandomAccess {
+        private final Chunk[] chunks;
+        // Index of the first task of each chunk.
+        private final int[] offsets;
+        private final int size;
+
+        ChunkedList(Chunk[] chunks, int size) {
+            this.chunks = chunks;
+            this.offsets = new int[chunks.length];
+            this.size = size;
+            for (int c = 1; c < chunks.length; c++) {
+                offsets[c] = offsets[c - 1] + chunks[c - 1].size();
+            }
+        }
+
+        @Override
+        public Task get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+            }
+            int c = Arrays.binarySearch(offsets, index);
+            if (c < 0) {
+                c = -c - 2;
+            }
+            // No chunk is empty, so the offsets are distinct and a miss lands just after the right chunk.
+            return chunks[c].get(index - offsets[c]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<Task> iterator() {
+            return new Iterator<Task>() {
+                private int chunkIndex;
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return chunkIndex < chunks.length;
+                }
+
+                @Override
+                public Task next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    Chunk chunk = chunks[chunkIndex];
+                    Task task = chunk.get(index++);
+                    if (index == chunk.size()) {
+                        chunkIndex++;
+                        index = 0;
+                    }
+                    return task;
+                }
+            };
+        }
+    }
+
+    // Last chunk whose first task starts at or before 'start'; new tasks go after equal start times.
+    private int chunkFor(long start) {
+        int lo = 0;
+        int hi = chunks.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (startOf(chunks.get(mid).get(0)) <= start) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    // First chunk that may hold a task starting at 'start'.
+    private int firstChunkFrom(long start) {
+        int lo = 0;
+        int hi = chunks.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            List<Task> chunk = chunks.get(mid);
+            if (startOf(chunk.get(chunk.size() - 1)) < start) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int lowerBound(List<Task> chunk, long start) {
+        int lo = 0;
+        int hi = chunk.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (startOf(chunk.get(mid)) < start) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int upperBound(List<Task> chunk, long start) {
+        int lo = 0;
+        int hi = chunk.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (startOf(chunk.get(mid)) <= start) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
+
+// --- Description Index (case-insensitive hash on task descriptions) ---
+class DescriptionIndex {
+    private static final class Entry {
+        final int hash;
+        final String key;
+        final List<Task> tasks = new ArrayList<>(1);
+        Entry next;
+
+        Entry(int hash, String key) {
+            this.hash = hash;
+            this.key = key;
+        }
+    }
+
+    private Entry[] table = new Entry[16];
+    private int entries;
+
+    public void add(Task task) {
+        String description = task.getDescription();
+        int hash = foldedHash(description);
+        Entry entry = find(description, hash);
+        if (entry == null) {
+            if (entries >= table.length - (table.length >>> 2)) {
+                resize();
+            }
+            entry = new Entry(hash, description);
+            int slot = hash & (table.length - 1);
+            entry.next = table[slot];
+            table[slot] = entry;
+            entries++;
+        }
+        entry.tasks.add(task);
+    }
+
+    public boolean remove(Task task) {
+        String description = task.getDescription();
+        int hash = foldedHash(description);
+        Entry entry = find(description, hash);
+        if (entry == null) {
+            return false;
+        }
+        for (int i = 0; i < entry.tasks.size(); i++) {
+            if (entry.tasks.get(i) == task) {
+                entry.tasks.remove(i);
+                if (entry.tasks.isEmpty()) {
+                    unlink(entry);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 'replacement' must have the same description as 'task'; it takes over the same position.
+    public boolean replace(Task task, Task replacement) {
+        Entry entry = find(task.getDescription(), foldedHash(task.getDescription()));
+        if (entry != null) {
+            for (int i = 0; i < entry.tasks.size(); i++) {
+                if (entry.tasks.get(i) == task) {
+                    entry.tasks.set(i, replacement);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public boolean contains(Task task) {
+        Entry entry = find(task.getDescription(), foldedHash(task.getDescription()));
+        if (entry != null) {
+            for (Task candidate : entry.tasks) {
+                if (candidate == task) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Earliest-starting task with a matching description, or null.
+    public Task findFirst(String description) {
+        Entry entry = find(description, foldedHash(description));
+        if (entry == null) {
+            return null;
+        }
+        Task first = entry.tasks.get(0);
+        for (int i = 1; i < entry.tasks.size(); i++) {
+            Task candidate = entry.tasks.get(i);
+            if (candidate.getStartTime().isBefore(first.getStartTime())) {
+                first = candidate;
+            }
+        }
+        return first;
+    }
+
+    public List<Task> removeAll(String description) {
+        Entry entry = find(description, foldedHash(description));
+        if (entry == null) {
+            return Collections.emptyList();
+        }
+        unlink(entry);
+        return entry.tasks;
+    }
+
+    public void clear() {
+        Arrays.fill(table, null);
+        entries = 0;
+    }
+
+    private Entry find(String description, int hash) {
+        for (Entry e = table[hash & (table.length - 1)]; e != null; e = e.next) {
+            if (e.hash == hash && e.key.equalsIgnoreCase(description)) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    private void unlink(Entry entry) {
+        int slot = entry.hash & (table.length - 1);
+        Entry prev = null;
+        for (Entry e = table[slot]; e != null; prev = e, e = e.next) {
+            if (e == entry) {
+                if (prev == null) {
+                    table[slot] = e.next;
+                } else {
+                    prev.next = e.next;
+                }
+                entries--;
+                return;
+            }
+        }
+    }
+
+    private void resize() {
+        Entry[] old = table;
+        table = new Entry[old.length << 1];
+        for (Entry head : old) {
+            for (Entry e = head; e != null; ) {
+                Entry next = e.next;
+                int slot = e.hash & (table.length - 1);
+                e.next = table[slot];
+                table[slot] = e;
+                e = next;
+            }
+        }
+    }
+
+    // Hash consistent with String.equalsIgnoreCase, computed without building a lower-cased copy.
+    static int foldedHash(String s) {
+        int h = 0;
+        for (int i = 0; i < s.length(); ) {
+            int c = s.charAt(i);
+            if (c < 0x80) {
+                if (c >= 'A' && c <= 'Z') {
+                    c += 'a' - 'A';
+                }
+                i++;
+            } else {
+                c = s.codePointAt(i);
+                i += Character.charCount(c);
+                c = Character.toLowerCase(Character.toUpperCase(c));
+            }
+            h = 31 * h + c;
+        }
+        return h ^ (h >>> 16);
+    }
+}
+
+// --- Minute Occupancy Map (1440-bit day bitmap for conflict checks) ---
+class MinuteOccupancyMap {
+    static final int MINUTES_PER_DAY = 24 * 60;
+    private static final int WORDS = (MINUTES_PER_DAY + 63) >>> 6;
+
+    private final long[] occupied = new long[WORDS];
+    private final long[] instants = new long[WORDS];
+    private final char[] slotByMinute = new char[MINUTES_PER_DAY];
+    private final Task[] slotTasks = new Task[MINUTES_PER_DAY + 1];
+    private final char[] freeSlots = new char[MINUTES_PER_DAY];
+    private int freeCount;
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final List<Task>[] instantTasks = new List[MINUTES_PER_DAY];
+    private int irregularTasks;
+
+    MinuteOccupancyMap() {
+        for (int slot = MINUTES_PER_DAY; slot >= 1; slot--) {
+            freeSlots[freeCount++] = (char) slot;
+        }
+    }
+
+    static boolean isMinuteAligned(LocalTime time) {
+        return time.getSecond() == 0 && time.getNano() == 0;
+    }
+
+    static int minuteOf(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    // The bitmap only sees whole-minute tasks; anything else must go through the interval index.
+    public boolean canAnswer(Task candidate) {
+        return irregularTasks == 0
+                && isMinuteAligned(candidate.getStartTime()) && isMinuteAligned(candidate.getEndTime());
+    }
+
+    public void add(Task task) {
+        if (!isMinuteAligned(task.getStartTime()) || !isMinuteAligned(task.getEndTime())) {
+            irregularTasks++;
+            return;
+        }
+        int start = minuteOf(task.getStartTime());
+        int end = minuteOf(task.getEndTime());
+        if (start == end) {
+            if (instantTasks[start] == null) {
+                instantTasks[start] = new ArrayList<>(1);
+            }
+            instantTasks[start].add(task);
+            instants[start >>> 6] |= 1L << start;
+            return;
+        }
+        if (!isFree(occupied, start, end)) {
+            throw new IllegalStateException("Minutes already occupied for task: " + task.getDescription());
+        }
+        char slot = freeSlots[--freeCount];
+        slotTasks[slot] = task;
+        Arrays.fill(slotByMinute, start, end, slot);
+        setRange(occupied, start, end, true);
+    }
+
+    public void remove(Task task) {
+        if (!isMinuteAligned(task.getStartTime()) || !isMinuteAligned(task.getEndTime())) {
+            irregularTasks--;
+            return;
+        }
+        int start = minuteOf(task.getStartTime());
+        int end = minuteOf(task.getEndTime());
+        if (start == end) {
+            List<Task> atMinute = instantTasks[start];
+            if (atMinute != null && atMinute.remove(task) && atMinute.isEmpty()) {
+                instantTasks[start] = null;
+                instants[start >>> 6] &= ~(1L << start);
+            }
+            return;
+        }
+        char slot = slotByMinute[start];
+        if (slot == 0 || slotTasks[slot] != task) {
+            return;
+        }
+        slotTasks[slot] = null;
+        freeSlots[freeCount++] = slot;
+        Arrays.fill(slotByMinute, start, end, (char) 0);
+        setRange(occupied, start, end, false);
+    }
+
+    // 'replacement' must span the same minutes as 'task'.
+    public void replace(Task task, Task replacement) {
+        if (!isMinuteAligned(task.getStartTime()) || !isMinuteAligned(task.getEndTime())) {
+            return;
+        }
+        int start = minuteOf(task.getStartTime());
+        int end = minuteOf(task.getEndTime());
+        if (start == end) {
+            List<Task> atMinute = instantTasks[start];
+            int index = atMinute == null ? -1 : atMinute.indexOf(task);
+            if (index >= 0) {
+                atMinute.set(index, replacement);
+            }
+            return;
+        }
+        char slot = slotByMinute[start];
+        if (slot != 0 && slotTasks[slot] == task) {
+            slotTasks[slot] = replacement;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(occupied, 0L);
+        Arrays.fill(instants, 0L);
+        Arrays.fill(slotByMinute, (char) 0);
+        Arrays.fill(slotTasks, null);
+        Arrays.fill(instantTasks, null);
+        freeCount = 0;
+        for (int slot = MINUTES_PER_DAY; slot >= 1; slot--) {
+            freeSlots[freeCount++] = (char) slot;
+        }
+        irregularTasks = 0;
+    }
+
+    public boolean isFree(int startMinute, int endMinute) {
+        return isFree(occupied, startMinute, endMinute);
+    }
+
+    // Task holding the given minute, or null when the minute is free.
+    public Task taskAt(int minute) {
+        return slotTasks[slotByMinute[minute]];
+    }
+
+    // Same semantics as Task.overlapsWith against every indexed task except 'ignore'.
+    public Task findConflict(Task candidate, Task ignore) {
+        int start = minuteOf(candidate.getStartTime());
+        int end = minuteOf(candidate.getEndTime());
+        if (start == end) {
+            if (start == 0) {
+                return null;
+            }
+            Task holder = taskAt(start - 1);
+            return holder != null && holder != ignore && taskAt(start) == holder ? holder : null;
+        }
+        Task blocking = firstOccupant(start, end, ignore);
+        Task instant = firstInstant(start + 1, end, ignore);
+        if (blocking == null) {
+            return instant;
+        }
+        if (instant == null || !instant.getStartTime().isBefore(blocking.getStartTime())) {
+            return blocking;
+        }
+        return instant;
+    }
+
+    private Task firstOccupant(int start, int end, Task ignore) {
+        int ignoreStart = 0;
+        int ignoreEnd = 0;
+        if (ignore != null && slotTasks[slotByMinute[minuteOf(ignore.getStartTime())]] == ignore) {
+            ignoreStart = minuteOf(ignore.getStartTime());
+            ignoreEnd = minuteOf(ignore.getEndTime());
+        }
+        for (int word = start >>> 6; word <= (end - 1) >>> 6; word++) {
+            long bits = occupied[word] & rangeMask(word, start, end);
+            if (ignoreStart < ignoreEnd) {
+                bits &= ~rangeMask(word, ignoreStart, ignoreEnd);
+            }
+            if (bits != 0) {
+                return taskAt((word << 6) + Long.numberOfTrailingZeros(bits));
+            }
+        }
+        return null;
+    }
+
+    private Task firstInstant(int start, int end, Task ignore) {
+        if (start >= end) {
+            return null;
+        }
+        for (int word = start >>> 6; word <= (end - 1) >>> 6; word++) {
+            long bits = instants[word] & rangeMask(word, start, end);
+            while (bits != 0) {
+                int minute = (word << 6) + Long.numberOfTrailingZeros(bits);
+                for (Task task : instantTasks[minute]) {
+                    if (task != ignore) {
+                        return task;
+                    }
+                }
+                bits &= bits - 1;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isFree(long[] bitmap, int start, int end) {
+        for (int word = start >>> 6; start < end && word <= (end - 1) >>> 6; word++) {
+            if ((bitmap[word] & rangeMask(word, start, end)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void setRange(long[] bitmap, int start, int end, boolean value) {
+        for (int word = start >>> 6; word <= (end - 1) >>> 6; word++) {
+            long mask = rangeMask(word, start, end);
+            bitmap[word] = value ? bitmap[word] | mask : bitmap[word] & ~mask;
+        }
+    }
+
+    // Bits of 'word' that fall inside [start, end).
+    private static long rangeMask(int word, int start, int end) {
+        int from = Math.max(start - (word << 6), 0);
+        int to = Math.min(end - (word << 6), 64);
+        if (from >= to) {
+            return 0L;
+        }
+        long upper = to == 64 ? -1L : (1L << to) - 1;
+        return upper & (-1L << from);
+    }
+}
+
+// --- Interval Index (augmented AVL tree keyed on start/end time) ---
+class TaskIntervalTree {
+    private static final class Node {
+        Task task;
+        final long start;
+        final long end;
+        final long seq;
+        long maxEnd;
+        int height;
+        Node left;
+        Node right;
+
+        Node(Task task, long start, long end, long seq) {
+            this.task = task;
+            this.start = start;
+            this.end = end;
+            this.seq = seq;
+            this.maxEnd = end;
+            this.height = 1;
+        }
+    }
+
+    private final Map<Task, Node> nodes = new IdentityHashMap<>();
+    private Node root;
+    private long nextSeq;
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public void insert(Task task) {
+        Node node = new Node(task, task.getStartTime().toNanoOfDay(), task.getEndTime().toNanoOfDay(), nextSeq++);
+        if (nodes.putIfAbsent(task, node) != null) {
+            throw new IllegalStateException("Task is already indexed: " + task.getDescription());
+        }
+        root = insert(root, node);
+    }
+
+    public boolean remove(Task task) {
+        Node node = nodes.remove(task);
+        if (node == null) {
+            return false;
+        }
+        root = remove(root, node);
+        return true;
+    }
+
+    // 'replacement' must span the same interval as 'task'; its node is reused as is.
+    public boolean replace(Task task, Task replacement) {
+        Node node = nodes.remove(task);
+        if (node == null) {
+            return false;
+        }
+        node.task = replacement;
+        nodes.put(replacement, node);
+        return true;
+    }
+
+    public void clear() {
+        nodes.clear();
+        root = null;
+    }
+
+    // Replaces the contents with 'ordered' (sorted by start time) as a perfectly balanced tree, in O(n).
+    public void build(Task[] ordered) {
+        Task[] sorted = ordered.clone();
+        Arrays.sort(sorted, Comparator.comparingLong((Task task) -> task.getStartTime().toNanoOfDay())
+                .thenComparingLong(task -> task.getEndTime().toNanoOfDay()));
+        Node[] built = new Node[sorted.length];
+        nodes.clear();
+        for (int i = 0; i < sorted.length; i++) {
+            Task task = sorted[i];
+            built[i] = new Node(task, task.getStartTime().toNanoOfDay(), task.getEndTime().toNanoOfDay(), nextSeq++);
+            if (nodes.putIfAbsent(task, built[i]) != null) {
+                throw new IllegalStateException("Task is already indexed: " + task.getDescription());
+            }
+        }
+        root = build(built, 0, built.length);
+    }
+
+    private static Node build(Node[] sorted, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        Node node = sorted[mid];
+        node.left = build(sorted, from, mid);
+        node.right = build(sorted, mid + 1, to);
+        update(node);
+        return node;
+    }
+
+    // Returns the earliest-starting indexed task overlapping the candidate, skipping 'ignore'.
+    public Task findOverlap(Task candidate, Task ignore) {
+        return findOverlap(candidate.getStartTime().toNanoOfDay(), candidate.getEndTime().toNanoOfDay(), ignore);
+    }
+
+    public Task findOverlap(long start, long end, Task ignore) {
+        Node found = findOverlap(root, start, end, ignore);
+        return found == null ? null : found.task;
+    }
+
+    // Appends every indexed task overlapping [start, end), in start order.
+    public void collectOverlaps(long start, long end, List<Task> out) {
+        collectOverlaps(root, start, end, out);
+    }
+
+    private static void collectOverlaps(Node node, long start, long end, List<Task> out) {
+        if (node == null || node.maxEnd <= start) {
+            return;
+        }
+        collectOverlaps(node.left, start, end, out);
+        if (node.start >= end) {
+            return;
+        }
+        if (node.end > start) {
+            out.add(node.task);
+        }
+        collectOverlaps(node.right, start, end, out);
+    }
+
+    private static Node findOverlap(Node node, long start, long end, Task ignore) {
+        if (node == null || node.maxEnd <= start) {
+            return null;
+        }
+        Node found = findOverlap(node.left, start, end, ignore);
+        if (found != null) {
+            return found;
+        }
+        if (node.start >= end) {
+            return null;
+        }
+        if (node.end > start && node.task != ignore) {
+            return node;
+        }
+        return findOverlap(node.right, start, end, ignore);
+    }
+
+    private static int compare(Node a, Node b) {
+        int c = Long.compare(a.start, b.start);
+        if (c == 0) {
+            c = Long.compare(a.end, b.end);
+        }
+        return c != 0 ? c : Long.compare(a.seq, b.seq);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return rebalance(node);
+    }
+
+    private static Node remove(Node node, Node target) {
+        if (node == null) {
+            return null;
+        }
+        if (node == target) {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            return rebalance(successor);
+        }
+        if (compare(target, node) < 0) {
+            node.left = remove(node.left, target);
+        } else {
+            node.right = remove(node.right, target);
+        }
+        return rebalance(node);
+    }
+
+    private static Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        long max = node.end;
+        if (node.left != null && node.left.maxEnd > max) {
+            max = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd > max) {
+            max = node.right.maxEnd;
+        }
+        node.maxEnd = max;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+}
+
+// --- Paged Slot Index (slot numbers in key order, split into fixed-size pages) ---
+// An insert or removal shifts entries inside one page, plus the page directory when a page splits or
+// empties, rather than the whole index. Lookups binary-search the directory by each page's last key,
+// then the page. A position is (page << 32 | offset); NONE lies before the first entry and END after
+// the last. Subclasses hold the directory and the pages, on the heap or in a mapped file.
+abstract class PagedSlotIndex {
+    static final int PAGE_SLOTS = 256;
+    static final long NONE = -1L;
+    static final long END = Long.MAX_VALUE;
+
+    private final IntToLongFunction keyOf;
+
+    PagedSlotIndex(IntToLongFunction keyOf) {
+        this.keyOf = keyOf;
+    }
+
+    abstract int pageCount();
+
+    // Physical page holding the entries of directory entry 'page'.
+    abstract int pageId(int page);
+
+    abstract int count(int page);
+
+    abstract void setCount(int page, int count);
+
+    // Inserts an empty page into the directory at 'page'.
+    abstract void insertPage(int page);
+
+    // Drops directory entry 'page' and frees its page.
+    abstract void removePage(int page);
+
+    abstract int entry(int pageId, int offset);
+
+    abstract void setEntry(int pageId, int offset, int slot);
+
+    // Copies 'length' entries; source and target may overlap.
+    abstract void copy(int fromPageId, int fromOffset, int toPageId, int toOffset, int length);
+
+    final long first() {
+        return pageCount() == 0 ? END : 0L;
+    }
+
+    final int slotAt(long position) {
+        return entry(pageId(pageOf(position)), offsetOf(position));
+    }
+
+    final long next(long position) {
+        int page = pageOf(position);
+        if (offsetOf(position) + 1 < count(page)) {
+            return position + 1;
+        }
+        return page + 1 < pageCount() ? position(page + 1, 0) : END;
+    }
+
+    final long previous(long position) {
+        if (position == END) {
+            int last = pageCount() - 1;
+            return last < 0 ? NONE : position(last, count(last) - 1);
+        }
+        int page = pageOf(position);
+        if (offsetOf(position) > 0) {
+            return position - 1;
+        }
+        return page > 0 ? position(page - 1, count(page - 1) - 1) : NONE;
+    }
+
+    // First position whose key is at least 'key', or END.
+    final long lowerBound(long key) {
+        return bound(key, false);
+    }
+
+    // First position whose key is above 'key', or END.
+    final long upperBound(long key) {
+        return bound(key, true);
+    }
+
+    // Inserts the slot after every entry with an equal key. A full page is split in half, except when
+    // appending past its end, which starts a new page so that loads in key order fill pages completely.
+    final void insert(int slot) {
+        if (pageCount() == 0) {
+            insertPage(0);
+            setEntry(pageId(0), 0, slot);
+            setCount(0, 1);
+            return;
+        }
+        long position = upperBound(keyOf.applyAsLong(slot));
+        int page;
+        int offset;
+        if (position == END) {
+            page = pageCount() - 1;
+            offset = count(page);
+        } else {
+            page = pageOf(position);
+            offset = offsetOf(position);
+        }
+        int count = count(page);
+        if (count == PAGE_SLOTS) {
+            if (offset == PAGE_SLOTS) {
+                page++;
+                offset = 0;
+                if (page == pageCount() || count(page) == PAGE_SLOTS) {
+                    insertPage(page);
+                }
+            } else {
+                int half = PAGE_SLOTS / 2;
+                insertPage(page + 1);
+                copy(pageId(page), half, pageId(page + 1), 0, PAGE_SLOTS - half);
+                setCount(page, half);
+                setCount(page + 1, PAGE_SLOTS - half);
+                if (offset > half) {
+                    page++;
+                    offset -= half;
+                }
+            }
+            count = count(page);
+        }
+        int id = pageId(page);
+        copy(id, offset, id, offset + 1, count - offset);
+        setEntry(id, offset, slot);
+        setCount(page, count + 1);
+    }
+
+    // The slot must be in the index under its current key.
+    final void remove(int slot) {
+        long position = lowerBound(keyOf.applyAsLong(slot));
+        while (slotAt(position) != slot) {
+            position = next(position);
+        }
+        int page = pageOf(position);
+        int offset = offsetOf(position);
+        int count = count(page);
+        if (count == 1) {
+            removePage(page);
+            return;
+        }
+        int id = pageId(page);
+        copy(id, offset + 1, id, offset, count - offset - 1);
+        setCount(page, count - 1);
+    }
+
+    private long bound(long key, boolean after) {
+        int lo = 0;
+        int hi = pageCount();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (before(keyOf.applyAsLong(entry(pageId(mid), count(mid) - 1)), key, after)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        if (lo == pageCount()) {
+            return END;
+        }
+        int id = pageId(lo);
+        int first = 0;
+        int last = count(lo) - 1;
+        while (first < last) {
+            int mid = (first + last) >>> 1;
+            if (before(keyOf.applyAsLong(entry(id, mid)), key, after)) {
+                first = mid + 1;
+            } else {
+                last = mid;
+            }
+        }
+        return position(lo, first);
+    }
+
+    private static boolean before(long entryKey, long key, boolean after) {
+        return after ? entryKey <= key : entryKey < key;
+    }
+
+    private static long position(int page, int offset) {
+        return (long) page << 32 | offset;
+    }
+
+    private static int pageOf(long position) {
+        return (int) (position >>> 32);
+    }
+
+    private static int offsetOf(long position) {
+        return (int) position;
+    }
+}
+
+// Pages in one int array; freed pages are reused before the array grows.
+final class HeapSlotIndex extends PagedSlotIndex {
+    private int[] entries = new int[4 * PAGE_SLOTS];
+    private int[] pageIds = new int[4];
+    private int[] counts = new int[4];
+    private int pages;
+    private int pagesAllocated;
+    private int[] freePages = new int[4];
+    private int freeCount;
+
+    HeapSlotIndex(IntToLongFunction keyOf) {
+        super(keyOf);
+    }
+
+    @Override
+    int pageCount() {
+        return pages;
+    }
+
+    @Override
+    int pageId(int page) {
+        return pageIds[page];
+    }
+
+    @Override
+    int count(int page) {
+        return counts[page];
+    }
+
+    @Override
+    void setCount(int page, int count) {
+        counts[page] = count;
+    }
+
+    @Override
+    void insertPage(int page) {
+        int id;
+        if (freeCount > 0) {
+            id = freePages[--freeCount];
+        } else {
+            id = pagesAllocated++;
+            if (pagesAllocated * PAGE_SLOTS > entries.length) {
+                entries = Arrays.copyOf(entries, entries.length << 1);
+            }
+        }
+        if (pages == pageIds.length) {
+            pageIds = Arrays.copyOf(pageIds, pages << 1);
+            counts = Arrays.copyOf(counts, pages << 1);
+        }
+        System.arraycopy(pageIds, page, pageIds, page + 1, pages - page);
+        System.arraycopy(counts, page, counts, page + 1, pages - page);
+        pageIds[page] = id;
+        counts[page] = 0;
+        pages++;
+    }
+
+    @Override
+    void removePage(int page) {
+        if (freeCount == freePages.length) {
+            freePages = Arrays.copyOf(freePages, freeCount << 1);
+        }
+        freePages[freeCount++] = pageIds[page];
+        System.arraycopy(pageIds, page + 1, pageIds, page, pages - page - 1);
+        System.arraycopy(counts, page + 1, counts, page, pages - page - 1);
+        pages--;
+    }
+
+    @Override
+    int entry(int pageId, int offset) {
+        return entries[pageId * PAGE_SLOTS + offset];
+    }
+
+    @Override
+    void setEntry(int pageId, int offset, int slot) {
+        entries[pageId * PAGE_SLOTS + offset] = slot;
+    }
+
+    @Override
+    void copy(int fromPageId, int fromOffset, int toPageId, int toOffset, int length) {
+        System.arraycopy(entries, fromPageId * PAGE_SLOTS + fromOffset, entries, toPageId * PAGE_SLOTS + toOffset, length);
+    }
+}
+
+// --- Packed Task Store (struct-of-arrays storage, minute resolution) ---
+// Start/end are minute-of-day shorts, priority a byte and completion a bit; Task objects are
+// handed out as read-only views built on demand from the cached LocalTime instances.
+class PackedTaskStore implements TaskStore {
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private short[] starts;
+    private short[] ends;
+    private byte[] priorities;
+    private long[] completed;
+    private String[] descriptions;
+    private int[] descriptionHashes;
+    private int[] generations;
+    private int[] hashNext;
+    private int[] hashBuckets;
+    private final HeapSlotIndex order = new HeapSlotIndex(slot -> starts[slot]);
+    private int size;
+    private int slotsUsed;
+    private int[] freeSlots;
+    private int freeCount;
+
+    PackedTaskStore() {
+        this(64);
+    }
+
+    PackedTaskStore(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        starts = new short[capacity];
+        ends = new short[capacity];
+        priorities = new byte[capacity];
+        completed = new long[(capacity + 63) >>> 6];
+        descriptions = new String[capacity];
+        descriptionHashes = new int[capacity];
+        generations = new int[capacity];
+        hashNext = new int[capacity];
+        freeSlots = new int[capacity];
+        hashBuckets = new int[Integer.highestOneBit(capacity - 1) << 1];
+        Arrays.fill(hashBuckets, -1);
+    }
+
+    static final class View extends Task {
+        private final PackedTaskStore owner;
+        private final int slot;
+        private final int generation;
+
+        private View(PackedTaskStore owner, int slot) {
+            super(owner.descriptions[slot], TimeParser.timeOfMinute(owner.starts[slot]),
+                    TimeParser.timeOfMinute(owner.ends[slot]), PRIORITIES[owner.priorities[slot]]);
+            this.owner = owner;
+            this.slot = slot;
+            this.generation = owner.generations[slot];
+            if ((owner.completed[slot >>> 6] & (1L << slot)) != 0) {
+                markAsCompleted();
+            }
+            makeReadOnly();
+        }
+
+        @Override
+        Object identity() {
+            return new StoredTaskKey(owner, slot, generation);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task findConflict(Task candidate, Task ignore) {
+        int slot = conflictSlot(floorMinute(candidate.getStartTime()), ceilMinute(candidate.getEndTime()), slotOf(ignore), null);
+        return slot < 0 ? null : new View(this, slot);
+    }
+
+    @Override
+    public void collectConflicts(Task candidate, List<Task> out) {
+        List<Integer> slots = new ArrayList<>();
+        conflictSlot(floorMinute(candidate.getStartTime()), ceilMinute(candidate.getEndTime()), -1, slots);
+        for (int i = slots.size() - 1; i >= 0; i--) {
+            out.add(new View(this, slots.get(i)));
+        }
+    }
+
+    // Stored tasks never overlap, so only the tasks starting before 'end' back to the first one that
+    // starts before 'start' (plus its equal-start group) can conflict. Returns the earliest match.
+    private int conflictSlot(int start, int end, int ignoreSlot, List<Integer> all) {
+        int found = -1;
+        int stopStart = -1;
+        for (long p = order.previous(order.lowerBound(end)); p != PagedSlotIndex.NONE; p = order.previous(p)) {
+            int slot = order.slotAt(p);
+            int taskStart = starts[slot];
+            if (stopStart >= 0 && taskStart != stopStart) {
+                break;
+            }
+            if (ends[slot] > start && slot != ignoreSlot) {
+                found = slot;
+                if (all != null) {
+                    all.add(slot);
+                }
+            }
+            if (taskStart < start && stopStart < 0) {
+                stopStart = taskStart;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void add(Task task) {
+        if (!MinuteOccupancyMap.isMinuteAligned(task.getStartTime()) || !MinuteOccupancyMap.isMinuteAligned(task.getEndTime())) {
+            throw new IllegalArgumentException("Packed storage holds whole-minute times only: " + task.getDescription());
+        }
+        int slot = allocateSlot();
+        write(slot, task.getDescription(), task.getStartTime(), task.getEndTime(), task.getPriority());
+        setCompleted(slot, task.isCompleted());
+        link(slot);
+    }
+
+    @Override
+    public Task findFirst(String description) {
+        int hash = DescriptionIndex.foldedHash(description);
+        int first = -1;
+        for (int slot = hashBuckets[hash & (hashBuckets.length - 1)]; slot >= 0; slot = hashNext[slot]) {
+            if (descriptionHashes[slot] == hash && descriptions[slot].equalsIgnoreCase(description)
+                    && (first < 0 || starts[slot] <= starts[first])) {
+                first = slot;
+            }
+        }
+        return first < 0 ? null : new View(this, first);
+    }
+
+    @Override
+    public List<Task> removeAll(String description) {
+        int hash = DescriptionIndex.foldedHash(description);
+        List<Task> removed = new ArrayList<>();
+        for (int slot = hashBuckets[hash & (hashBuckets.length - 1)]; slot >= 0; ) {
+            int next = hashNext[slot];
+            if (descriptionHashes[slot] == hash && descriptions[slot].equalsIgnoreCase(description)) {
+                removed.add(new View(this, slot));
+                unlink(slot);
+                descriptions[slot] = null;
+                setCompleted(slot, false);
+                generations[slot]++;
+                freeSlots[freeCount++] = slot;
+            }
+            slot = next;
+        }
+        return removed;
+    }
+
+    @Override
+    public Task update(Task task, String description, LocalTime startTime, LocalTime endTime, Priority priority) {
+        if (!MinuteOccupancyMap.isMinuteAligned(startTime) || !MinuteOccupancyMap.isMinuteAligned(endTime)) {
+            throw new IllegalArgumentException("Packed storage holds whole-minute times only: " + description);
+        }
+        int slot = requireSlot(task);
+        unlink(slot);
+        write(slot, description, startTime, endTime, priority);
+        link(slot);
+        return new View(this, slot);
+    }
+
+    @Override
+    public Task markCompleted(Task task) {
+        int slot = requireSlot(task);
+        setCompleted(slot, true);
+        return new View(this, slot);
+    }
+
+    @Override
+    public Task[] toArray() {
+        Task[] result = new Task[size];
+        int i = 0;
+        for (long p = order.first(); p != PagedSlotIndex.END; p = order.next(p)) {
+            result[i++] = new View(this, order.slotAt(p));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> orderedSnapshot() {
+        return Collections.unmodifiableList(Arrays.asList(toArray()));
+    }
+
+    @Override
+    public List<Task> byPriority(Priority priority) {
+        byte wanted = (byte) priority.ordinal();
+        List<Task> result = new ArrayList<>();
+        for (long p = order.first(); p != PagedSlotIndex.END; p = order.next(p)) {
+            int slot = order.slotAt(p);
+            if (priorities[slot] == wanted) {
+                result.add(new View(this, slot));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void setOccupancyBitmapEnabled(boolean enabled) {
+        if (enabled) {
+            throw new UnsupportedOperationException("Packed storage does not maintain an occupancy bitmap.");
+        }
+    }
+
+    @Override
+    public boolean isOccupancyBitmapEnabled() {
+        return false;
+    }
+
+    @Override
+    public void beginBulkLoad() {
+        // Nothing to defer: every index is needed by findFirst and removeAll.
+    }
+
+    @Override
+    public void endBulkLoad() {
+    }
+
+    private int slotOf(Task task) {
+        return task instanceof View && ((View) task).owner == this ? ((View) task).slot : -1;
+    }
+
+    private int requireSlot(Task task) {
+        int slot = slotOf(task);
+        if (slot < 0 || descriptions[slot] == null || ((View) task).generation != generations[slot]) {
+            throw new IllegalArgumentException("Task is not held by this store: " + task.getDescription());
+        }
+        return slot;
+    }
+
+    private void write(int slot, String description, LocalTime startTime, LocalTime endTime, Priority priority) {
+        starts[slot] = (short) MinuteOccupancyMap.minuteOf(startTime);
+        ends[slot] = (short) MinuteOccupancyMap.minuteOf(endTime);
+        priorities[slot] = (byte) priority.ordinal();
+        descriptions[slot] = description;
+        descriptionHashes[slot] = DescriptionIndex.foldedHash(description);
+    }
+
+    private void setCompleted(int slot, boolean value) {
+        if (value) {
+            completed[slot >>> 6] |= 1L << slot;
+        } else {
+            completed[slot >>> 6] &= ~(1L << slot);
+        }
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotsUsed == starts.length) {
+            grow();
+        }
+        return slotsUsed++;
+    }
+
+    // Adds the slot to the start-time order (after equal starts) and to its hash chain.
+    private void link(int slot) {
+        order.insert(slot);
+        size++;
+        int bucket = descriptionHashes[slot] & (hashBuckets.length - 1);
+        hashNext[slot] = hashBuckets[bucket];
+        hashBuckets[bucket] = slot;
+    }
+
+    private void unlink(int slot) {
+        order.remove(slot);
+        size--;
+        int bucket = descriptionHashes[slot] & (hashBuckets.length - 1);
+        if (hashBuckets[bucket] == slot) {
+            hashBuckets[bucket] = hashNext[slot];
+        } else {
+            int prev = hashBuckets[bucket];
+            while (hashNext[prev] != slot) {
+                prev = hashNext[prev];
+            }
+            hashNext[prev] = hashNext[slot];
+        }
+    }
+
+    private void grow() {
+        int capacity = starts.length << 1;
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        completed = Arrays.copyOf(completed, (capacity + 63) >>> 6);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        descriptionHashes = Arrays.copyOf(descriptionHashes, capacity);
+        generations = Arrays.copyOf(generations, capacity);
+        hashNext = Arrays.copyOf(hashNext, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+        hashBuckets = new int[hashBuckets.length << 1];
+        Arrays.fill(hashBuckets, -1);
+        for (int slot = 0; slot < slotsUsed; slot++) {
+            if (descriptions[slot] != null) {
+                int bucket = descriptionHashes[slot] & (hashBuckets.length - 1);
+                hashNext[slot] = hashBuckets[bucket];
+                hashBuckets[bucket] = slot;
+            }
+        }
+    }
+
+    private static int floorMinute(LocalTime time) {
+        return MinuteOccupancyMap.minuteOf(time);
+    }
+
+    private static int ceilMinute(LocalTime time) {
+        return MinuteOccupancyMap.minuteOf(time) + (MinuteOccupancyMap.isMinuteAligned(time) ? 0 : 1);
+    }
+}
+
+// --- Mapped Task Store (memory-mapped fixed-width records, off-heap) ---
+// Four files under one directory: fixed-width task records, an append-only UTF-8 string arena for
+// descriptions, and the start-time index as pages of slot numbers plus their page directory. The
+// page cache holds the data; the heap keeps only the description hash buckets and the free-slot and
+// free-page lists. Changes reach disk on flush() or close().
+class MappedTaskStore implements TaskStore, AutoCloseable {
+    private static final int MAGIC = 0x41534d54;
+    private static final int FORMAT = 2;
+    // Format 1 kept the start index as one flat sorted array in this file.
+    private static final int FLAT_INDEX_FORMAT = 1;
+    private static final String FLAT_INDEX_FILE = "start-index.dat";
+    private static final int HEADER_BYTES = 64;
+    private static final int RECORD_BYTES = 40;
+    private static final int START = 0;
+    private static final int END = 8;
+    private static final int DESCRIPTION_OFFSET = 16;
+    private static final int DESCRIPTION_LENGTH = 20;
+    private static final int HASH = 24;
+    private static final int HASH_NEXT = 28;
+    private static final int PRIORITY = 32;
+    private static final int FLAGS = 33;
+    private static final int GENERATION = 36;
+    private static final byte LIVE = 1;
+    private static final byte COMPLETED = 2;
+    private static final int SLOTS_USED_FIELD = 8;
+    private static final int SIZE_FIELD = 12;
+    private static final int ARENA_USED_FIELD = 16;
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final Path directory;
+    private final FileChannel recordChannel;
+    private final FileChannel arenaChannel;
+    private final MappedSlotIndex startIndex;
+    private MappedByteBuffer records;
+    private MappedByteBuffer arena;
+    private int slotsUsed;
+    private int size;
+    private int arenaUsed;
+    private int[] hashBuckets;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+
+    private MappedTaskStore(Path directory, int initialCapacity) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        recordChannel = FileChannel.open(directory.resolve("tasks.dat"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        arenaChannel = FileChannel.open(directory.resolve("descriptions.dat"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean fresh = recordChannel.size() == 0;
+        int capacity = Math.max(16, initialCapacity);
+        records = map(recordChannel, Math.max(recordChannel.size(), HEADER_BYTES + (long) capacity * RECORD_BYTES));
+        arena = map(arenaChannel, Math.max(arenaChannel.size(), (long) capacity * 32));
+        int format = FORMAT;
+        if (fresh) {
+            records.putInt(0, MAGIC).putInt(4, FORMAT);
+            writeHeader();
+        } else {
+            format = records.getInt(4);
+            if (records.getInt(0) != MAGIC || (format != FORMAT && format != FLAT_INDEX_FORMAT)) {
+                throw new IOException("Not a mapped task store: " + directory);
+            }
+            slotsUsed = records.getInt(SLOTS_USED_FIELD);
+            size = records.getInt(SIZE_FIELD);
+            arenaUsed = records.getInt(ARENA_USED_FIELD);
+        }
+        startIndex = new MappedSlotIndex(directory, capacity, format == FLAT_INDEX_FORMAT, this::startOf);
+        if (format == FLAT_INDEX_FORMAT) {
+            migrateFlatIndex();
+        }
+        rebuildHashIndex(Math.max(capacity, slotsUsed));
+    }
+
+    // Copies the format 1 flat index into pages. The pages are forced before the header moves to
+    // format 2 and the flat file is deleted last, so a crash part way through repeats the migration.
+    private void migrateFlatIndex() throws IOException {
+        Path flat = directory.resolve(FLAT_INDEX_FILE);
+        try (FileChannel channel = FileChannel.open(flat, StandardOpenOption.READ)) {
+            MappedByteBuffer old = channel.map(FileChannel.MapMode.READ_ONLY, 0, (long) size * 4);
+            for (int i = 0; i < size; i++) {
+                startIndex.insert(old.getInt(i * 4));
+            }
+        }
+        startIndex.force();
+        records.putInt(4, FORMAT);
+        records.force();
+        Files.deleteIfExists(flat);
+    }
+
+    public static MappedTaskStore open(Path directory) throws IOException {
+        return open(directory, 1024);
+    }
+
+    public static MappedTaskStore open(Path directory, int initialCapacity) throws IOException {
+        return new MappedTaskStore(directory, initialCapacity);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // A view copies its record's fields out of the mapped pages when it is created, so it is an
+    // ordinary heap object and does not follow later changes to the record.
+    static final class View extends Task {
+        private final MappedTaskStore owner;
+        private final int slot;
+        private final int generation;
+
+        private View(MappedTaskStore owner, int slot) {
+            super(owner.description(slot), owner.time(slot, START), owner.time(slot, END),
+                    PRIORITIES[owner.records.get(owner.offset(slot) + PRIORITY)]);
+            this.owner = owner;
+            this.slot = slot;
+            this.generation = owner.records.getInt(owner.offset(slot) + GENERATION);
+            if ((owner.records.get(owner.offset(slot) + FLAGS) & COMPLETED) != 0) {
+                markAsCompleted();
+            }
+            makeReadOnly();
+        }
+
+        @Override
+        Object identity() {
+            return new StoredTaskKey(owner, slot, generation);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task findConflict(Task candidate, Task ignore) {
+        int slot = conflictSlot(candidate.getStartTime().toNanoOfDay(), candidate.getEndTime().toNanoOfDay(), slotOf(ignore), null);
+        return slot < 0 ? null : new View(this, slot);
+    }
+
+    @Override
+    public void collectConflicts(Task candidate, List<Task> out) {
+        List<Integer> slots = new ArrayList<>();
+        conflictSlot(candidate.getStartTime().toNanoOfDay(), candidate.getEndTime().toNanoOfDay(), -1, slots);
+        for (int i = slots.size() - 1; i >= 0; i--) {
+            out.add(new View(this, slots.get(i)));
+        }
+    }
+
+    // Same walk as PackedTaskStore.conflictSlot, over the on-disk index and nanosecond times.
+    private int conflictSlot(long start, long end, int ignoreSlot, List<Integer> all) {
+        int found = -1;
+        long stopStart = -1;
+        for (long p = startIndex.previous(startIndex.lowerBound(end)); p != PagedSlotIndex.NONE; p = startIndex.previous(p)) {
+            int slot = startIndex.slotAt(p);
+            long taskStart = startOf(slot);
+            if (stopStart >= 0 && taskStart != stopStart) {
+                break;
+            }
+            if (records.getLong(offset(slot) + END) > start && slot != ignoreSlot) {
+                found = slot;
+                if (all != null) {
+                    all.add(slot);
+                }
+            }
+            if (taskStart < start && stopStart < 0) {
+                stopStart = taskStart;
+            }
+        }
+        return found;
+    }
+
+    // Tasks whose start lies in [from, to), in start order, read directly off the index.
+    public List<Task> tasksStartingBetween(LocalTime from, LocalTime to) {
+        long last = startIndex.lowerBound(to.toNanoOfDay());
+        List<Task> result = new ArrayList<>();
+        for (long p = startIndex.lowerBound(from.toNanoOfDay()); p < last; p = startIndex.next(p)) {
+            result.add(new View(this, startIndex.slotAt(p)));
+        }
+        return result;
+    }
+
+    @Override
+    public void add(Task task) {
+        int slot = allocateSlot();
+        write(slot, task.getDescription(), task.getStartTime(), task.getEndTime(), task.getPriority());
+        records.put(offset(slot) + FLAGS, (byte) (LIVE | (task.isCompleted() ? COMPLETED : 0)));
+        link(slot);
+        writeHeader();
+    }
+
+    @Override
+    public Task findFirst(String description) {
+        int hash = DescriptionIndex.foldedHash(description);
+        int first = -1;
+        for (int slot = hashBuckets[hash & (hashBuckets.length - 1)]; slot >= 0; slot = hashNextOf(slot)) {
+            if (hashOf(slot) == hash && description(slot).equalsIgnoreCase(description)
+                    && (first < 0 || startOf(slot) <= startOf(first))) {
+                first = slot;
+            }
+        }
+        return first < 0 ? null : new View(this, first);
+    }
+
+    @Override
+    public List<Task> removeAll(String description) {
+        int hash = DescriptionIndex.foldedHash(description);
+        List<Task> removed = new ArrayList<>();
+        for (int slot = hashBuckets[hash & (hashBuckets.length - 1)]; slot >= 0; ) {
+            int next = hashNextOf(slot);
+            if (hashOf(slot) == hash && description(slot).equalsIgnoreCase(description)) {
+                removed.add(new View(this, slot));
+                unlink(slot);
+                records.put(offset(slot) + FLAGS, (byte) 0);
+                records.putInt(offset(slot) + GENERATION, records.getInt(offset(slot) + GENERATION) + 1);
+                pushFree(slot);
+            }
+            slot = next;
+        }
+        if (!removed.isEmpty()) {
+            writeHeader();
+        }
+        return removed;
+    }
+
+    @Override
+    public Task update(Task task, String description, LocalTime startTime, LocalTime endTime, Priority priority) {
+        int slot = requireSlot(task);
+        unlink(slot);
+        write(slot, description, startTime, endTime, priority);
+        link(slot);
+        writeHeader();
+        return new View(this, slot);
+    }
+
+    @Override
+    public Task markCompleted(Task task) {
+        int slot = requireSlot(task);
+        int flags = offset(slot) + FLAGS;
+        records.put(flags, (byte) (records.get(flags) | COMPLETED));
+        return new View(this, slot);
+    }
+
+    @Override
+    public Task[] toArray() {
+        Task[] result = new Task[size];
+        int i = 0;
+        for (long p = startIndex.first(); p != PagedSlotIndex.END; p = startIndex.next(p)) {
+            result[i++] = new View(this, startIndex.slotAt(p));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Task> orderedSnapshot() {
+        return Collections.unmodifiableList(Arrays.asList(toArray()));
+    }
+
+    @Override
+    public List<Task> byPriority(Priority priority) {
+        byte wanted = (byte) priority.ordinal();
+        List<Task> result = new ArrayList<>();
+        for (long p = startIndex.first(); p != PagedSlotIndex.END; p = startIndex.next(p)) {
+            int slot = startIndex.slotAt(p);
+            if (records.get(offset(slot) + PRIORITY) == wanted) {
+                result.add(new View(this, slot));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void setOccupancyBitmapEnabled(boolean enabled) {
+        if (enabled) {
+            throw new UnsupportedOperationException("Mapped storage does not maintain an occupancy bitmap.");
+        }
+    }
+
+    @Override
+    public boolean isOccupancyBitmapEnabled() {
+        return false;
+    }
+
+    @Override
+    public void beginBulkLoad() {
+        // Nothing to defer: every index is needed by findFirst and removeAll.
+    }
+
+    @Override
+    public void endBulkLoad() {
+    }
+
+    public void flush() {
+        records.force();
+        arena.force();
+        startIndex.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        recordChannel.close();
+        arenaChannel.close();
+        startIndex.close();
+    }
+
+    private int offset(int slot) {
+        return HEADER_BYTES + slot * RECORD_BYTES;
+    }
+
+    private long startOf(int slot) {
+        return records.getLong(offset(slot) + START);
+    }
+
+    private int hashOf(int slot) {
+        return records.getInt(offset(slot) + HASH);
+    }
+
+    private int hashNextOf(int slot) {
+        return records.getInt(offset(slot) + HASH_NEXT);
+    }
+
+    private LocalTime time(int slot, int field) {
+        long nanoOfDay = records.getLong(offset(slot) + field);
+        return nanoOfDay % 60_000_000_000L == 0
+                ? TimeParser.timeOfMinute((int) (nanoOfDay / 60_000_000_000L))
+                : LocalTime.ofNanoOfDay(nanoOfDay);
+    }
+
+    private String description(int slot) {
+        int base = offset(slot);
+        byte[] bytes = new byte[records.getInt(base + DESCRIPTION_LENGTH)];
+        arena.get(records.getInt(base + DESCRIPTION_OFFSET), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int slotOf(Task task) {
+        return task instanceof View && ((View) task).owner == this ? ((View) task).slot : -1;
+    }
+
+    private int requireSlot(Task task) {
+        int slot = slotOf(task);
+        if (slot < 0 || (records.get(offset(slot) + FLAGS) & LIVE) == 0
+                || ((View) task).generation != records.getInt(offset(slot) + GENERATION)) {
+            throw new IllegalArgumentException("Task is not held by this store: " + task.getDescription());
+        }
+        return slot;
+    }
+
+    // Descriptions are appended to the arena; space held by replaced descriptions is not reclaimed.
+    private void write(int slot, String description, LocalTime startTime, LocalTime endTime, Priority priority) {
+        byte[] bytes = description.getBytes(StandardCharsets.UTF_8);
+        if ((long) arenaUsed + bytes.length > arena.capacity()) {
+            arena = remap(arenaChannel, arena, (long) arenaUsed + bytes.length);
+        }
+        arena.put(arenaUsed, bytes);
+        int base = offset(slot);
+        records.putLong(base + START, startTime.toNanoOfDay())
+                .putLong(base + END, endTime.toNanoOfDay())
+                .putInt(base + DESCRIPTION_OFFSET, arenaUsed)
+                .putInt(base + DESCRIPTION_LENGTH, bytes.length)
+                .putInt(base + HASH, DescriptionIndex.foldedHash(description))
+                .put(base + PRIORITY, (byte) priority.ordinal());
+        arenaUsed += bytes.length;
+    }
+
+    private void writeHeader() {
+        records.putInt(SLOTS_USED_FIELD, slotsUsed).putInt(SIZE_FIELD, size).putInt(ARENA_USED_FIELD, arenaUsed);
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (offset(slotsUsed + 1) > records.capacity()) {
+            records = remap(recordChannel, records, (long) offset(slotsUsed + 1));
+        }
+        if (slotsUsed == hashBuckets.length) {
+            rebuildHashIndex(hashBuckets.length << 1);
+        }
+        return slotsUsed++;
+    }
+
+    private void pushFree(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount << 1);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    // Adds the slot to the start index (after equal starts) and to its hash chain.
+    private void link(int slot) {
+        startIndex.insert(slot);
+        size++;
+        int bucket = hashOf(slot) & (hashBuckets.length - 1);
+        records.putInt(offset(slot) + HASH_NEXT, hashBuckets[bucket]);
+        hashBuckets[bucket] = slot;
+    }
+
+    private void unlink(int slot) {
+        startIndex.remove(slot);
+        size--;
+        int bucket = hashOf(slot) & (hashBuckets.length - 1);
+        if (hashBuckets[bucket] == slot) {
+            hashBuckets[bucket] = hashNextOf(slot);
+        } else {
+            int prev = hashBuckets[bucket];
+            while (hashNextOf(prev) != slot) {
+                prev = hashNextOf(prev);
+            }
+            records.putInt(offset(prev) + HASH_NEXT, hashNextOf(slot));
+        }
+    }
+
+    private void rebuildHashIndex(int capacity) {
+        hashBuckets = new int[Integer.highestOneBit(Math.max(16, capacity) - 1) << 1];
+        Arrays.fill(hashBuckets, -1);
+        freeCount = 0;
+        for (int slot = 0; slot < slotsUsed; slot++) {
+            if ((records.get(offset(slot) + FLAGS) & LIVE) == 0) {
+                pushFree(slot);
+                continue;
+            }
+            int bucket = hashOf(slot) & (hashBuckets.length - 1);
+            records.putInt(offset(slot) + HASH_NEXT, hashBuckets[bucket]);
+            hashBuckets[bucket] = slot;
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long bytes) throws IOException {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("Mapped task store file would exceed 2 GiB.");
+        }
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+    }
+
+    // Doubles the mapping until it holds 'required' bytes; the old mapping is released by the GC.
+    private static MappedByteBuffer remap(FileChannel channel, MappedByteBuffer current, long required) {
+        long capacity = current.capacity();
+        while (capacity < required) {
+            capacity <<= 1;
+        }
+        try {
+            current.force();
+            return map(channel, Math.min(capacity, Integer.MAX_VALUE));
         } catch (IOException e) {
-            logger.log(Level.SEVERE, "Failed to set up file logger.", e);
+            throw new UncheckedIOException("Could not grow mapped task store", e);
+        }
+    }
+
+    // The start index on disk: 1 KiB pages of slot numbers in start-pages.dat, and the directory in
+    // start-directory.dat as [page count][pages allocated] followed by (page id, entry count) for each
+    // page in start order. Pages outside the directory are free; that list is rebuilt on open.
+    private static final class MappedSlotIndex extends PagedSlotIndex {
+        private static final int PAGE_BYTES = PAGE_SLOTS * 4;
+        private static final int DIRECTORY_HEADER_BYTES = 8;
+        private static final int DIRECTORY_ENTRY_BYTES = 8;
+
+        private final FileChannel pageChannel;
+        private final FileChannel directoryChannel;
+        private MappedByteBuffer pages;
+        private MappedByteBuffer directory;
+        private int pageCount;
+        private int pagesAllocated;
+        private int[] freePages = new int[16];
+        private int freeCount;
+
+        MappedSlotIndex(Path storeDirectory, int initialSlots, boolean reset, IntToLongFunction keyOf) throws IOException {
+            super(keyOf);
+            pageChannel = FileChannel.open(storeDirectory.resolve("start-pages.dat"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            directoryChannel = FileChannel.open(storeDirectory.resolve("start-directory.dat"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int initialPages = initialSlots / PAGE_SLOTS + 1;
+            pages = map(pageChannel, Math.max(pageChannel.size(), (long) initialPages * PAGE_BYTES));
+            directory = map(directoryChannel, Math.max(directoryChannel.size(), entryOffset(initialPages)));
+            if (reset) {
+                directory.putInt(0, 0).putInt(4, 0);
+            }
+            pageCount = directory.getInt(0);
+            pagesAllocated = directory.getInt(4);
+            boolean[] used = new boolean[pagesAllocated];
+            for (int page = 0; page < pageCount; page++) {
+                used[pageId(page)] = true;
+            }
+            for (int id = pagesAllocated - 1; id >= 0; id--) {
+                if (!used[id]) {
+                    pushFree(id);
+                }
+            }
+        }
+
+        void force() {
+            pages.force();
+            directory.force();
+        }
+
+        void close() throws IOException {
+            pageChannel.close();
+            directoryChannel.close();
+        }
+
+        @Override
+        int pageCount() {
+            return pageCount;
+        }
+
+        @Override
+        int pageId(int page) {
+            return directory.getInt(entryOffset(page));
+        }
+
+        @Override
+        int count(int page) {
+            return directory.getInt(entryOffset(page) + 4);
+        }
+
+        @Override
+        void setCount(int page, int count) {
+            directory.putInt(entryOffset(page) + 4, count);
+        }
+
+        @Override
+        void insertPage(int page) {
+            int id = freeCount > 0 ? freePages[--freeCount] : pagesAllocated++;
+            if ((long) (id + 1) * PAGE_BYTES > pages.capacity()) {
+                pages = remap(pageChannel, pages, (long) (id + 1) * PAGE_BYTES);
+            }
+            if (entryOffset(pageCount + 1) > directory.capacity()) {
+                directory = remap(directoryChannel, directory, entryOffset(pageCount + 1));
+            }
+            int at = entryOffset(page);
+            directory.put(at + DIRECTORY_ENTRY_BYTES, directory, at, (pageCount - page) * DIRECTORY_ENTRY_BYTES);
+            directory.putInt(at, id).putInt(at + 4, 0);
+            pageCount++;
+            directory.putInt(0, pageCount).putInt(4, pagesAllocated);
+        }
+
+        @Override
+        void removePage(int page) {
+            pushFree(pageId(page));
+            int at = entryOffset(page);
+            directory.put(at, directory, at + DIRECTORY_ENTRY_BYTES, (pageCount - page - 1) * DIRECTORY_ENTRY_BYTES);
+            pageCount--;
+            directory.putInt(0, pageCount);
+        }
+
+        @Override
+        int entry(int pageId, int offset) {
+            return pages.getInt(pageId * PAGE_BYTES + offset * 4);
+        }
+
+        @Override
+        void setEntry(int pageId, int offset, int slot) {
+            pages.putInt(pageId * PAGE_BYTES + offset * 4, slot);
+        }
+
+        @Override
+        void copy(int fromPageId, int fromOffset, int toPageId, int toOffset, int length) {
+            pages.put(toPageId * PAGE_BYTES + toOffset * 4, pages, fromPageId * PAGE_BYTES + fromOffset * 4, length * 4);
+        }
+
+        private void pushFree(int id) {
+            if (freeCount == freePages.length) {
+                freePages = Arrays.copyOf(freePages, freeCount << 1);
+            }
+            freePages[freeCount++] = id;
+        }
+
+        private static int entryOffset(int page) {
+            return DIRECTORY_HEADER_BYTES + page * DIRECTORY_ENTRY_BYTES;
+        }
+    }
+}
+
+// --- Schedule Benchmark (plain-Java harness: java ScheduleBenchmark [options]) ---
+// Measures the ScheduleManager operations over a grid of schedule sizes, overlap densities and
+// priority mixes, plus TaskFactory.createTask and Task.toString, and prints one JMH-style average
+// time record (ns/op) per benchmark and parameter set as CSV or JSON.
+final class ScheduleBenchmark {
+    private static final long NANOS_PER_DAY = 86_400_000_000_000L;
+    private static final String CONFLICT_START = "00:00";
+    private static final String CONFLICT_END = "23:59";
+
+    enum PriorityMix {
+        UNIFORM, HIGH_HEAVY, SINGLE;
+
+        Priority pick(Random random) {
+            switch (this) {
+                case HIGH_HEAVY:
+                    int roll = random.nextInt(10);
+                    return roll < 7 ? Priority.HIGH : roll < 9 ? Priority.MEDIUM : Priority.LOW;
+                case SINGLE:
+                    return Priority.MEDIUM;
+                default:
+                    return Priority.values()[random.nextInt(3)];
+            }
+        }
+    }
+
+    static final class Result {
+        final String benchmark;
+        final int size;
+        final double overlap;
+        final PriorityMix mix;
+        final int ops;
+        final double[] nanosPerOp;
+
+        Result(String benchmark, int size, double overlap, PriorityMix mix, int ops, double[] nanosPerOp) {
+            this.benchmark = benchmark;
+            this.size = size;
+            this.overlap = overlap;
+            this.mix = mix;
+            this.ops = ops;
+            this.nanosPerOp = nanosPerOp;
+        }
+
+        double score() {
+            double sum = 0;
+            for (double value : nanosPerOp) {
+                sum += value;
+            }
+            return sum / nanosPerOp.length;
+        }
+
+        // Sample standard deviation across measurement iterations.
+        double error() {
+            if (nanosPerOp.length < 2) {
+                return 0;
+            }
+            double mean = score();
+            double squares = 0;
+            for (double value : nanosPerOp) {
+                squares += (value - mean) * (value - mean);
+            }
+            return Math.sqrt(squares / (nanosPerOp.length - 1));
+        }
+    }
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final long seed;
+    private long sink;
+
+    ScheduleBenchmark(int warmupIterations, int measurementIterations, long seed) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = {10, 100, 1_000, 10_000, 100_000, 1_000_000};
+        double[] overlaps = {0.0, 0.1, 0.5};
+        PriorityMix[] mixes = PriorityMix.values();
+        String format = "csv";
+        Path output = null;
+        int warmup = 3;
+        int iterations = 5;
+        long seed = 42L;
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--sizes":
+                    sizes = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                    break;
+                case "--overlaps":
+                    overlaps = Arrays.stream(value.split(",")).mapToDouble(Double::parseDouble).toArray();
+                    break;
+                case "--mixes":
+                    mixes = Arrays.stream(value.split(",")).map(name -> PriorityMix.valueOf(name.toUpperCase()))
+                            .toArray(PriorityMix[]::new);
+                    break;
+                case "--format":
+                    format = value.toLowerCase();
+                    break;
+                case "--out":
+                    output = Paths.get(value);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(value);
+                    break;
+                case "--iterations":
+                    iterations = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                default:
+                    System.err.println("Usage: java ScheduleBenchmark [--sizes 10,1000] [--overlaps 0,0.5] "
+                            + "[--mixes uniform,high_heavy,single] [--warmup n] [--iterations n] [--seed n] "
+                            + "[--format csv|json] [--out file]");
+                    System.exit(2);
+            }
+            i++;
+        }
+        if (!format.equals("csv") && !format.equals("json")) {
+            throw new IllegalArgumentException("Unknown format: " + format);
+        }
+
+        Level previousLevel = AppLogger.getLogger().getLevel();
+        AppLogger.getLogger().setLevel(Level.OFF);
+        List<Result> results = new ArrayList<>();
+        ScheduleBenchmark benchmark = new ScheduleBenchmark(warmup, Math.max(1, iterations), seed);
+        try {
+            results.add(benchmark.createTask());
+            results.add(benchmark.taskToString());
+            for (int size : sizes) {
+                for (double overlap : overlaps) {
+                    for (PriorityMix mix : mixes) {
+                        benchmark.scheduleOperations(size, overlap, mix, results);
+                        System.err.printf("done size=%d overlap=%s mix=%s%n", size, overlap, mix);
+                    }
+                }
+            }
+        } finally {
+            AppLogger.getLogger().setLevel(previousLevel);
         }
-    }
 
-    public static Logger getLogger() {
-        return logger;
+        StringBuilder report = format.equals("json") ? toJson(results) : toCsv(results);
+        if (output == null) {
+            System.out.print(report);
+        } else {
+            Files.write(output, report.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        if (benchmark.sink == 42) {
+            System.err.println();
+        }
     }
-}
 
-// --- 2. Task Class ---
-class Task {
-    private String description;
-    private LocalTime startTime;
-    private LocalTime endTime;
-    private Priority priority;
-    private boolean completed;
-    public Task(String description, LocalTime startTime, LocalTime endTime, Priority priority) {
-        if (startTime.isAfter(endTime)) {
-            throw new IllegalArgumentException("Start time cannot be after end time.");
+    Result createTask() {
+        int ops = 100_000;
+        Random random = new Random(seed);
+        String[] descriptions = new String[ops];
+        String[] starts = new String[ops];
+        String[] ends = new String[ops];
+        String[] priorities = new String[ops];
+        for (int i = 0; i < ops; i++) {
+            int start = random.nextInt(TimeParser.MINUTES_PER_DAY);
+            int end = start + random.nextInt(TimeParser.MINUTES_PER_DAY - start);
+            descriptions[i] = "Task " + i;
+            starts[i] = TaskRenderer.formatTime(TimeParser.timeOfMinute(start));
+            ends[i] = TaskRenderer.formatTime(TimeParser.timeOfMinute(end));
+            priorities[i] = PriorityMix.UNIFORM.pick(random).name().toLowerCase();
         }
-        this.description = description;
-        this.startTime = startTime;
-        this.endTime = endTime;
-        this.priority = priority;
-        this.completed = false;
+        double[] samples = measure(() -> {
+            long start = System.nanoTime();
+            for (int i = 0; i < ops; i++) {
+                sink += TaskFactory.createTask(descriptions[i], starts[i], ends[i], priorities[i]).getEndTime().getMinute();
+            }
+            return (double) (System.nanoTime() - start) / ops;
+        });
+        return new Result("createTask", 0, 0, null, ops, samples);
     }
 
-    public String getDescription() {
-        return description;
+    Result taskToString() {
+        int ops = 100_000;
+        Random random = new Random(seed);
+        Task[] tasks = new Task[ops];
+        for (int i = 0; i < ops; i++) {
+            int start = random.nextInt(TimeParser.MINUTES_PER_DAY);
+            tasks[i] = new Task("Task " + i, TimeParser.timeOfMinute(start),
+                    TimeParser.timeOfMinute(start + random.nextInt(TimeParser.MINUTES_PER_DAY - start)),
+                    PriorityMix.UNIFORM.pick(random));
+        }
+        double[] samples = measure(() -> {
+            long start = System.nanoTime();
+            for (Task task : tasks) {
+                sink += task.toString().length();
+            }
+            return (double) (System.nanoTime() - start) / ops;
+        });
+        return new Result("toString", 0, 0, null, ops, samples);
     }
 
-    public LocalTime getStartTime() {
-        return startTime;
+    // Task i occupies the first half of its slot [i * w, (i + 1) * w); the second half stays free so
+    // that non-conflicting adds have somewhere to go.
+    void scheduleOperations(int size, double overlap, PriorityMix mix, List<Result> results) {
+        Random random = new Random(seed ^ size ^ Double.doubleToLongBits(overlap) ^ mix.ordinal());
+        long width = NANOS_PER_DAY / size;
+        List<Task> base = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            base.add(new Task("Task " + i, LocalTime.ofNanoOfDay(i * width), LocalTime.ofNanoOfDay(i * width + width / 2),
+                    mix.pick(random)));
+        }
+        ScheduleManager manager = new ScheduleManager();
+        try {
+            manager.addTasks(base);
+        } catch (BatchConflictException e) {
+            throw new IllegalStateException("Benchmark schedule must be conflict-free", e);
+        }
+
+        int ops = Math.min(size, 10_000);
+        int[] slots = distinctSlots(size, ops, random);
+        Task[] candidates = new Task[ops];
+        for (int j = 0; j < ops; j++) {
+            long slotStart = slots[j] * width;
+            candidates[j] = random.nextDouble() < overlap
+                    ? new Task("Added " + j, LocalTime.ofNanoOfDay(slotStart + width / 4), LocalTime.ofNanoOfDay(slotStart + width * 3 / 4),
+                            mix.pick(random))
+                    : new Task("Added " + j, LocalTime.ofNanoOfDay(slotStart + width * 5 / 8), LocalTime.ofNanoOfDay(slotStart + width * 7 / 8),
+                            mix.pick(random));
+        }
+        double[] addSamples = new double[measurementIterations];
+        double[] removeSamples = new double[measurementIterations];
+        for (int iteration = -warmupIterations; iteration < measurementIterations; iteration++) {
+            long start = System.nanoTime();
+            for (Task candidate : candidates) {
+                try {
+                    manager.addTask(candidate);
+                } catch (TaskConflictException e) {
+                    sink++;
+                }
+            }
+            long added = System.nanoTime();
+            for (Task candidate : candidates) {
+                try {
+                    manager.removeTask(candidate.getDescription());
+                } catch (TaskNotFoundException e) {
+                    sink++;
+                }
+            }
+            long removed = System.nanoTime();
+            if (iteration >= 0) {
+                addSamples[iteration] = (double) (added - start) / ops;
+                removeSamples[iteration] = (double) (removed - added) / ops;
+            }
+        }
+        results.add(new Result("addTask", size, overlap, mix, ops, addSamples));
+        results.add(new Result("removeTask", size, overlap, mix, ops, removeSamples));
+
+        // Conflicting edits stretch a task over the whole day; the others move it to a zero-length
+        // slot on a minute boundary that no task strictly contains, which never conflicts.
+        String[] freeMinutes = freeMinutes(size, width);
+        String[] editStarts = new String[ops];
+        String[] editEnds = new String[ops];
+        String[] editPriorities = new String[ops];
+        for (int j = 0; j < ops; j++) {
+            boolean conflict = size > 1 && random.nextDouble() < overlap;
+            editStarts[j] = conflict ? CONFLICT_START : freeMinutes[random.nextInt(freeMinutes.length)];
+            editEnds[j] = conflict ? CONFLICT_END : editStarts[j];
+            editPriorities[j] = mix.pick(random).name();
+        }
+        results.add(new Result("editTask", size, overlap, mix, ops, measure(() -> {
+            long start = System.nanoTime();
+            for (int j = 0; j < ops; j++) {
+                String description = "Task " + slots[j];
+                try {
+                    manager.editTask(description, description, editStarts[j], editEnds[j], editPriorities[j]);
+                } catch (TaskConflictException | TaskNotFoundException e) {
+                    sink++;
+                }
+            }
+            return (double) (System.nanoTime() - start) / ops;
+        })));
+
+        int viewOps = Math.max(1, Math.min(10_000, 2_000_000 / size));
+        Priority[] priorities = Priority.values();
+        results.add(new Result("viewTasksByPriority", size, overlap, mix, viewOps, measure(() -> {
+            long start = System.nanoTime();
+            for (int j = 0; j < viewOps; j++) {
+                sink += manager.viewTasksByPriority(priorities[j % priorities.length]).size();
+            }
+            return (double) (System.nanoTime() - start) / viewOps;
+        })));
+        results.add(new Result("viewAllTasks", size, overlap, mix, viewOps, measure(() -> {
+            long start = System.nanoTime();
+            for (int j = 0; j < viewOps; j++) {
+                sink += manager.viewAllTasks().size();
+            }
+            return (double) (System.nanoTime() - start) / viewOps;
+        })));
+        // Every call follows a completion and has to rebuild the snapshot. Only the view call is timed,
+        // so the figure includes one System.nanoTime() pair but none of the completion's cost.
+        results.add(new Result("viewAllTasksAfterChange", size, overlap, mix, viewOps, measure(() -> {
+            long elapsed = 0;
+            for (int j = 0; j < viewOps; j++) {
+                try {
+                    manager.markTaskAsCompleted("Task " + slots[j % ops]);
+                } catch (TaskNotFoundException e) {
+                    sink++;
+                }
+                long start = System.nanoTime();
+                sink += manager.viewAllTasks().size();
+                elapsed += System.nanoTime() - start;
+            }
+            return (double) elapsed / viewOps;
+        })));
     }
 
-    public LocalTime getEndTime() {
-        return endTime;
+    private double[] measure(DoubleSupplier iteration) {
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration.getAsDouble();
+        }
+        double[] samples = new double[measurementIterations];
+        for (int i = 0; i < measurementIterations; i++) {
+            samples[i] = iteration.getAsDouble();
+        }
+        return samples;
     }
 
-    public Priority getPriority() {
-        return priority;
+    private static int[] distinctSlots(int size, int count, Random random) {
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) {
+            permutation[i] = i;
+        }
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(size - i);
+            int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
+        }
+        return Arrays.copyOf(permutation, count);
     }
 
-    public boolean isCompleted() {
-        return completed;
+    private static String[] freeMinutes(int size, long width) {
+        List<String> free = new ArrayList<>();
+        for (int minute = 0; minute < TimeParser.MINUTES_PER_DAY; minute++) {
+            long nanos = minute * 60_000_000_000L;
+            long slot = nanos / width;
+            long slotStart = slot * width;
+            if (slot >= size || nanos == slotStart || nanos >= slotStart + width / 2) {
+                free.add(TaskRenderer.formatTime(TimeParser.timeOfMinute(minute)));
+            }
+        }
+        return free.toArray(new String[0]);
     }
 
-    public void markAsCompleted() {
-        this.completed = true;
+    static StringBuilder toCsv(List<Result> results) {
+        StringBuilder out = new StringBuilder("benchmark,size,overlap,mix,ops_per_iteration,iterations,score_ns_per_op,score_error\n");
+        for (Result result : results) {
+            out.append(result.benchmark).append(',')
+                    .append(result.mix == null ? "" : Integer.toString(result.size)).append(',')
+                    .append(result.mix == null ? "" : Double.toString(result.overlap)).append(',')
+                    .append(result.mix == null ? "" : result.mix.name()).append(',')
+                    .append(result.ops).append(',').append(result.nanosPerOp.length).append(',')
+                    .append(String.format(Locale.ROOT, "%.3f,%.3f", result.score(), result.error())).append('\n');
+        }
+        return out;
     }
 
-    public void updateTask(String description, LocalTime startTime, LocalTime endTime, Priority priority) {
-        if (startTime.isAfter(endTime)) {
-            throw new IllegalArgumentException("Start time cannot be after end time.");
+    // Mirrors the shape of JMH's JSON output so existing result tooling can read it.
+    static StringBuilder toJson(List<Result> results) {
+        StringBuilder out = new StringBuilder("[\n");
+        for (int i = 0; i < results.size(); i++) {
+            Result result = results.get(i);
+            out.append("  {\"benchmark\": \"ScheduleBenchmark.").append(result.benchmark).append("\", \"mode\": \"avgt\", ")
+                    .append("\"measurementIterations\": ").append(result.nanosPerOp.length).append(", ")
+                    .append("\"opsPerIteration\": ").append(result.ops).append(", \"params\": {");
+            if (result.mix != null) {
+                out.append("\"size\": \"").append(result.size).append("\", \"overlap\": \"").append(result.overlap)
+                        .append("\", \"mix\": \"").append(result.mix.name()).append('"');
+            }
+            out.append("}, \"primaryMetric\": {")
+                    .append(String.format(Locale.ROOT, "\"score\": %.3f, \"scoreError\": %.3f", result.score(), result.error()))
+                    .append(", \"scoreUnit\": \"ns/op\", \"rawData\": [[");
+            for (int j = 0; j < result.nanosPerOp.length; j++) {
+                out.append(j == 0 ? "" : ", ").append(String.format(Locale.ROOT, "%.3f", result.nanosPerOp[j]));
+            }
+            out.append("]]}}").append(i + 1 < results.size() ? ",\n" : "\n");
         }
+        return out.append("]\n");
+    }
+}
+
+// --- Workload Generator and Load Replay (java LoadReplayDriver [options]) ---
+enum WorkloadOp {
+    ADD, EDIT, REMOVE, COMPLETE, VIEW_ALL, VIEW_BY_PRIORITY, VIEW_CREW
+}
+
+final class WorkloadOperation {
+    final WorkloadOp op;
+    final String crewMember;
+    final String description;
+    final String newDescription;
+    final String startTime;
+    final String endTime;
+    final String priority;
+
+    WorkloadOperation(WorkloadOp op, String crewMember, String description, String newDescription,
+                      String startTime, String endTime, String priority) {
+        this.op = op;
+        this.crewMember = crewMember;
         this.description = description;
+        this.newDescription = newDescription;
         this.startTime = startTime;
         this.endTime = endTime;
         this.priority = priority;
     }
-    public boolean overlapsWith(Task other) {
-        return this.startTime.isBefore(other.endTime) && this.endTime.isAfter(other.startTime);
-    }
 
     @Override
     public String toString() {
-        String status = completed ? " [COMPLETED]" : "";
-        return String.format("%s - %s: %s [%s]%s",
-                startTime.format(java.time.format.DateTimeFormatter.ofPattern("HH:mm")),
-                endTime.format(java.time.format.DateTimeFormatter.ofPattern("HH:mm")),
-                description, priority, status);
+        return op + " " + crewMember + " " + description + (newDescription == null ? "" : " -> " + newDescription)
+                + (startTime == null ? "" : " " + startTime + "-" + endTime) + (priority == null ? "" : " " + priority);
     }
 }
 
-enum Priority {
-    LOW, MEDIUM, HIGH;
+// Produces reproducible operation streams: the same seed, mix and conflict rate always yield the
+// same operations. Each stream keeps a minute-level model of the crew schedules it owns so that
+// adds and edits conflict at the requested rate (more once a day fills up) and edits, removals and
+// completions name tasks that exist.
+final class WorkloadGenerator {
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final int MAX_DURATION_MINUTES = 90;
 
-    public static Priority fromString(String text) {
-        for (Priority p : Priority.values()) {
-            if (p.name().equalsIgnoreCase(text)) {
-                return p;
+    private final long seed;
+    private final int crewSize;
+    private final WorkloadOp[] weightedOps;
+    private final double conflictRate;
+
+    WorkloadGenerator(long seed, int crewSize, Map<WorkloadOp, Integer> mix, double conflictRate) {
+        if (crewSize < 1) {
+            throw new IllegalArgumentException("Crew size must be at least 1.");
+        }
+        if (conflictRate < 0 || conflictRate > 1) {
+            throw new IllegalArgumentException("Conflict rate must be between 0 and 1.");
+        }
+        List<WorkloadOp> ops = new ArrayList<>();
+        for (Map.Entry<WorkloadOp, Integer> entry : mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                ops.add(entry.getKey());
             }
         }
-        throw new IllegalArgumentException("Invalid priority level: " + text);
+        if (ops.isEmpty()) {
+            throw new IllegalArgumentException("Operation mix must have at least one positive weight.");
+        }
+        this.seed = seed;
+        this.crewSize = crewSize;
+        this.weightedOps = ops.toArray(new WorkloadOp[0]);
+        this.conflictRate = conflictRate;
     }
-}
 
-// --- 3. Task Factory Pattern ---
-class TaskFactory {
-    public static Task createTask(String description, String startTimeStr, String endTimeStr, String priorityStr)
-            throws DateTimeParseException, IllegalArgumentException {
-        LocalTime startTime = LocalTime.parse(startTimeStr, java.time.format.DateTimeFormatter.ofPattern("HH:mm"));
-        LocalTime endTime = LocalTime.parse(endTimeStr, java.time.format.DateTimeFormatter.ofPattern("HH:mm"));
-        Priority priority = Priority.fromString(priorityStr);
-        return new Task(description, startTime, endTime, priority);
+    // Parses weights such as "add=40,edit=15,view_all=10"; operations left out get weight 0.
+    static Map<WorkloadOp, Integer> parseMix(String text) {
+        Map<WorkloadOp, Integer> mix = new EnumMap<>(WorkloadOp.class);
+        for (String part : text.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected op=weight but got: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight for " + pair[0]);
+            }
+            mix.put(WorkloadOp.valueOf(pair[0].trim().toUpperCase()), weight);
+        }
+        return mix;
     }
-}
-
-// --- 4. Observer Pattern Interfaces ---
-interface TaskConflictObserver {
-    void onTaskConflict(Task newTask, Task conflictingTask);
-}
-
-interface TaskUpdateObserver {
-    void onTaskUpdate(Task updatedTask);
-}
-
-// --- 5. Schedule Manager (Singleton Pattern) ---
-class ScheduleManager {
-    private static ScheduleManager instance;
-    private final List<Task> tasks;
-    private final List<TaskConflictObserver> conflictObservers;
-    private final List<TaskUpdateObserver> updateObservers;
-    private static final Logger logger = AppLogger.getLogger();
 
-    private ScheduleManager() {
-        tasks = new ArrayList<>();
-        conflictObservers = new ArrayList<>();
-        updateObservers = new ArrayList<>();
+    static String crewMemberName(int index) {
+        return "crew-" + index;
     }
 
-    public static synchronized ScheduleManager getInstance() {
-        if (instance == null) {
-            instance = new ScheduleManager();
+    // Stream 'streamIndex' of 'streamCount' owns crew members index % streamCount == streamIndex,
+    // so streams replayed in parallel do not invalidate each other's models. With fewer crew members
+    // than streams, the streams sharing a crew member each get their own part of the day.
+    List<WorkloadOperation> generate(int streamIndex, int streamCount, int operations) {
+        Random random = new Random(seed * 31 + streamIndex);
+        List<CrewModel> crews = new ArrayList<>();
+        if (crewSize < streamCount) {
+            int crew = streamIndex % crewSize;
+            int sharers = (streamCount - crew + crewSize - 1) / crewSize;
+            int rank = streamIndex / crewSize;
+            crews.add(new CrewModel(crewMemberName(crew), streamIndex, rank * TimeParser.MINUTES_PER_DAY / sharers,
+                    (rank + 1) * TimeParser.MINUTES_PER_DAY / sharers));
+        } else {
+            for (int i = streamIndex; i < crewSize; i += streamCount) {
+                crews.add(new CrewModel(crewMemberName(i), streamIndex, 0, TimeParser.MINUTES_PER_DAY));
+            }
         }
-        return instance;
+        List<WorkloadOperation> stream = new ArrayList<>(operations);
+        for (int i = 0; i < operations; i++) {
+            CrewModel crew = crews.get(random.nextInt(crews.size()));
+            WorkloadOp op = weightedOps[random.nextInt(weightedOps.length)];
+            if (crew.tasks.isEmpty() && (op == WorkloadOp.EDIT || op == WorkloadOp.REMOVE || op == WorkloadOp.COMPLETE)) {
+                op = WorkloadOp.ADD;
+            }
+            stream.add(next(op, crew, random));
+        }
+        return stream;
     }
 
-    public void addConflictObserver(TaskConflictObserver observer) {
-        conflictObservers.add(observer);
+    private WorkloadOperation next(WorkloadOp op, CrewModel crew, Random random) {
+        String priority = PRIORITIES[random.nextInt(PRIORITIES.length)].name();
+        switch (op) {
+            case ADD: {
+                String description = crew.newDescription();
+                int[] slot = random.nextDouble() < conflictRate ? crew.overlapping(random, null) : null;
+                if (slot == null) {
+                    slot = crew.freeSlot(random);
+                }
+                if (slot == null) {
+                    // The day is too full to find a gap quickly; this add will conflict.
+                    slot = crew.overlapping(random, null);
+                }
+                boolean conflicts = crew.conflicts(slot, null);
+                if (!conflicts) {
+                    crew.add(new ModelTask(description, slot[0], slot[1]));
+                }
+                return new WorkloadOperation(op, crew.name, description, null, minute(slot[0]), minute(slot[1]), priority);
+            }
+            case EDIT: {
+                ModelTask task = crew.tasks.get(random.nextInt(crew.tasks.size()));
+                int[] slot = random.nextDouble() < conflictRate ? crew.overlapping(random, task) : null;
+                if (slot == null) {
+                    crew.remove(task);
+                    slot = crew.freeSlot(random);
+                    crew.add(task);
+                    if (slot == null) {
+                        slot = new int[] {task.start, task.end};
+                    }
+                }
+                String newDescription = task.description;
+                if (!crew.conflicts(slot, task)) {
+                    newDescription = crew.newDescription();
+                    crew.remove(task);
+                    crew.add(new ModelTask(newDescription, slot[0], slot[1]));
+                }
+                return new WorkloadOperation(op, crew.name, task.description, newDescription, minute(slot[0]), minute(slot[1]), priority);
+            }
+            case REMOVE: {
+                ModelTask task = crew.tasks.get(random.nextInt(crew.tasks.size()));
+                crew.remove(task);
+                return new WorkloadOperation(op, crew.name, task.description, null, null, null, null);
+            }
+            case COMPLETE: {
+                ModelTask task = crew.tasks.get(random.nextInt(crew.tasks.size()));
+                return new WorkloadOperation(op, crew.name, task.description, null, null, null, null);
+            }
+            case VIEW_BY_PRIORITY:
+                return new WorkloadOperation(op, crew.name, null, null, null, null, priority);
+            default:
+                return new WorkloadOperation(op, crew.name, null, null, null, null, null);
+        }
     }
 
-    public void addUpdateObserver(TaskUpdateObserver observer) {
-        updateObservers.add(observer);
+    private static String minute(int minute) {
+        return TaskRenderer.formatTime(TimeParser.timeOfMinute(minute));
     }
 
-    private void notifyConflictObservers(Task newTask, Task conflictingTask) {
-        for (TaskConflictObserver observer : conflictObservers) {
-            observer.onTaskConflict(newTask, conflictingTask);
+    private static final class ModelTask {
+        final String description;
+        final int start;
+        final int end;
+
+        ModelTask(String description, int start, int end) {
+            this.description = description;
+            this.start = start;
+            this.end = end;
         }
     }
 
-    private void notifyUpdateObservers(Task updatedTask) {
-        for (TaskUpdateObserver observer : updateObservers) {
-            observer.onTaskUpdate(updatedTask);
+    // Minute-resolution shadow of the part [from, to) of one crew schedule that a stream works in.
+    private static final class CrewModel {
+        final String name;
+        final String descriptionPrefix;
+        final int from;
+        final int to;
+        final List<ModelTask> tasks = new ArrayList<>();
+        final int[] occupiedBy = new int[TimeParser.MINUTES_PER_DAY];
+        int nextId;
+
+        CrewModel(String name, int streamIndex, int from, int to) {
+            this.name = name;
+            this.descriptionPrefix = name + "-s" + streamIndex + "-task-";
+            this.from = from;
+            this.to = Math.min(to, TimeParser.MINUTES_PER_DAY - 1);
         }
-    }
 
-    public void addTask(Task newTask) throws TaskConflictException {
-        for (Task existingTask : tasks) {
-            if (newTask.overlapsWith(existingTask)) {
-                notifyConflictObservers(newTask, existingTask);
-                logger.warning(String.format("Task conflict detected: New task '%s' conflicts with existing task '%s'",
-                        newTask.getDescription(), existingTask.getDescription()));
-                throw new TaskConflictException("Task conflicts with existing task \"" + existingTask.getDescription() + "\".");
+        String newDescription() {
+            return descriptionPrefix + nextId++;
+        }
+
+        void add(ModelTask task) {
+            tasks.add(task);
+            for (int m = task.start; m < task.end; m++) {
+                occupiedBy[m]++;
             }
         }
 
-        tasks.add(newTask);
-        Collections.sort(tasks, Comparator.comparing(Task::getStartTime)); 
-        logger.info(String.format("Task added: %s", newTask.getDescription()));
-    }
+        void remove(ModelTask task) {
+            tasks.remove(task);
+            for (int m = task.start; m < task.end; m++) {
+                occupiedBy[m]--;
+            }
+        }
 
-    public void removeTask(String description) throws TaskNotFoundException {
-        boolean removed = tasks.removeIf(task -> task.getDescription().equalsIgnoreCase(description));
-        if (!removed) {
-            logger.warning(String.format("Attempted to remove non-existent task: %s", description));
-            throw new TaskNotFoundException("Task not found.");
+        boolean conflicts(int[] slot, ModelTask ignore) {
+            for (ModelTask task : tasks) {
+                if (task != ignore && task.start < slot[1] && task.end > slot[0]) {
+                    return true;
+                }
+            }
+            return false;
         }
-        logger.info(String.format("Task removed: %s", description));
-    }
 
-    public List<Task> viewAllTasks() {
-        if (tasks.isEmpty()) {
-            return Collections.emptyList();
+        // A free run starting at a random free minute, or null when none was found after a few tries.
+        int[] freeSlot(Random random) {
+            for (int attempt = 0; attempt < 16; attempt++) {
+                int start = from + random.nextInt(to - from);
+                if (occupiedBy[start] != 0) {
+                    continue;
+                }
+                int limit = Math.min(to, start + 1 + random.nextInt(MAX_DURATION_MINUTES));
+                int end = start + 1;
+                while (end < limit && occupiedBy[end] == 0) {
+                    end++;
+                }
+                return new int[] {start, end};
+            }
+            return null;
         }
-        return new ArrayList<>(tasks);
-    }
 
-    public List<Task> viewTasksByPriority(Priority priority) {
-        List<Task> filteredTasks = new ArrayList<>();
-        for (Task task : tasks) {
-            if (task.getPriority().equals(priority)) {
-                filteredTasks.add(task);
+        // A slot overlapping some task other than 'ignore', or null when there is none.
+        int[] overlapping(Random random, ModelTask ignore) {
+            int candidates = tasks.size() - (ignore == null ? 0 : 1);
+            if (candidates <= 0) {
+                return null;
             }
+            ModelTask target;
+            do {
+                target = tasks.get(random.nextInt(tasks.size()));
+            } while (target == ignore);
+            int start = Math.max(from, target.start - random.nextInt(30));
+            return new int[] {start, Math.min(to, Math.max(target.start + 1, start + 1 + random.nextInt(MAX_DURATION_MINUTES)))};
         }
-        Collections.sort(filteredTasks, Comparator.comparing(Task::getStartTime));
-        return filteredTasks;
     }
-    public void editTask(String oldDescription, String newDescription, String startTimeStr, String endTimeStr, String priorityStr)
-            throws TaskNotFoundException, DateTimeParseException, IllegalArgumentException, TaskConflictException {
-        Task taskToEdit = null;
-        int index = -1;
-        for (int i = 0; i < tasks.size(); i++) {
-            if (tasks.get(i).getDescription().equalsIgnoreCase(oldDescription)) {
-                taskToEdit = tasks.get(i);
-                index = i;
-                break;
+}
+
+// Replays generated streams against a CrewScheduleRegistry, one thread per stream, and reports
+// throughput plus latency percentiles overall and per operation type.
+final class LoadReplayDriver {
+    private final CrewScheduleRegistry registry;
+
+    LoadReplayDriver(CrewScheduleRegistry registry) {
+        this.registry = registry;
+    }
+
+    static final class Report {
+        private final long elapsedNanos;
+        private final Map<WorkloadOp, long[]> latencies;
+        private final Map<WorkloadOp, long[]> outcomes;
+
+        Report(long elapsedNanos, Map<WorkloadOp, long[]> latencies, Map<WorkloadOp, long[]> outcomes) {
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+            this.outcomes = outcomes;
+        }
+
+        public long getOperations() {
+            long total = 0;
+            for (long[] values : latencies.values()) {
+                total += values.length;
             }
+            return total;
         }
 
-        if (taskToEdit == null) {
-            logger.warning(String.format("Attempted to edit non-existent task: %s", oldDescription));
-            throw new TaskNotFoundException("Task to edit not found.");
+        public double getThroughput() {
+            return getOperations() * 1e9 / Math.max(1, elapsedNanos);
         }
-        LocalTime newStartTime = LocalTime.parse(startTimeStr, java.time.format.DateTimeFormatter.ofPattern("HH:mm"));
-        LocalTime newEndTime = LocalTime.parse(endTimeStr, java.time.format.DateTimeFormatter.ofPattern("HH:mm"));
-        Priority newPriority = Priority.fromString(priorityStr);
-        Task tempTask = new Task(newDescription, newStartTime, newEndTime, newPriority);
-        for (int i = 0; i < tasks.size(); i++) {
-            if (i != index && tempTask.overlapsWith(tasks.get(i))) {
-                notifyConflictObservers(tempTask, tasks.get(i));
-                logger.warning(String.format("Edit conflict detected: Updated task '%s' conflicts with existing task '%s'",
-                        newDescription, tasks.get(i).getDescription()));
-                throw new TaskConflictException("Edited task conflicts with existing task \"" + tasks.get(i).getDescription() + "\".");
+
+        // Latency in nanoseconds at 'percentile' (0-100) for one operation type, or all when null.
+        public long percentile(WorkloadOp op, double percentile) {
+            long[] sorted = op == null ? all() : latencies.getOrDefault(op, new long[0]);
+            if (sorted.length == 0) {
+                return 0;
             }
+            int rank = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
         }
 
-        taskToEdit.updateTask(newDescription, newStartTime, newEndTime, newPriority);
-        Collections.sort(tasks, Comparator.comparing(Task::getStartTime)); 
-        notifyUpdateObservers(taskToEdit);
-        logger.info(String.format("Task edited: %s -> %s", oldDescription, newDescription));
-    }
-    public void markTaskAsCompleted(String description) throws TaskNotFoundException {
-        Task taskToComplete = null;
-        for (Task task : tasks) {
-            if (task.getDescription().equalsIgnoreCase(description)) {
-                taskToComplete = task;
-                break;
+        private long[] all() {
+            long[] merged = new long[(int) getOperations()];
+            int offset = 0;
+            for (long[] values : latencies.values()) {
+                System.arraycopy(values, 0, merged, offset, values.length);
+                offset += values.length;
             }
+            Arrays.sort(merged);
+            return merged;
         }
 
-        if (taskToComplete == null) {
-            logger.warning(String.format("Attempted to mark non-existent task as completed: %s", description));
-            throw new TaskNotFoundException("Task not found.");
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format(Locale.ROOT, "%d operations in %.3f s: %.0f ops/s%n", getOperations(), elapsedNanos / 1e9, getThroughput()));
+            out.append(String.format(Locale.ROOT, "%-17s %9s %9s %9s %9s %10s %10s %10s %10s%n",
+                    "operation", "count", "conflict", "not-found", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us"));
+            for (WorkloadOp op : latencies.keySet()) {
+                long[] counts = outcomes.get(op);
+                appendRow(out, op.name().toLowerCase(), op, latencies.get(op).length, counts[0], counts[1]);
+            }
+            long conflicts = 0;
+            long notFound = 0;
+            for (long[] counts : outcomes.values()) {
+                conflicts += counts[0];
+                notFound += counts[1];
+            }
+            appendRow(out, "all", null, getOperations(), conflicts, notFound);
+            return out.toString();
+        }
+
+        private void appendRow(StringBuilder out, String label, WorkloadOp op, long count, long conflicts, long notFound) {
+            out.append(String.format(Locale.ROOT, "%-17s %9d %9d %9d %9.1f %10.1f %10.1f %10.1f %10.1f%n", label, count, conflicts, notFound,
+                    percentile(op, 50) / 1e3, percentile(op, 90) / 1e3, percentile(op, 99) / 1e3,
+                    percentile(op, 99.9) / 1e3, percentile(op, 100) / 1e3));
         }
-        taskToComplete.markAsCompleted();
-        notifyUpdateObservers(taskToComplete);
-        logger.info(String.format("Task marked as completed: %s", description));
-    }
-}
-class TaskConflictException extends Exception {
-    public TaskConflictException(String message) {
-        super(message);
     }
-}
 
-class TaskNotFoundException extends Exception {
-    public TaskNotFoundException(String message) {
-        super(message);
+    public Report replay(List<List<WorkloadOperation>> streams) throws InterruptedException {
+        int threads = streams.size();
+        long[][] latencies = new long[threads][];
+        byte[][] results = new byte[threads][];
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        AtomicReferenceArray<Throwable> failures = new AtomicReferenceArray<>(threads);
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            List<WorkloadOperation> stream = streams.get(t);
+            latencies[t] = new long[stream.size()];
+            results[t] = new byte[stream.size()];
+            for (WorkloadOperation operation : stream) {
+                registry.forCrewMember(operation.crewMember);
+            }
+            Thread worker = new Thread(() -> {
+                ready.countDown();
+                try {
+                    start.await();
+                    for (int i = 0; i < stream.size(); i++) {
+                        long begin = System.nanoTime();
+                        results[index][i] = execute(stream.get(i));
+                        latencies[index][i] = System.nanoTime() - begin;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    failures.set(index, e);
+                }
+            }, "load-replay-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+        ready.await();
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        for (int t = 0; t < threads; t++) {
+            if (failures.get(t) != null) {
+                throw new IllegalStateException("Replay thread " + t + " failed", failures.get(t));
+            }
+        }
+
+        Map<WorkloadOp, long[]> byOp = new EnumMap<>(WorkloadOp.class);
+        Map<WorkloadOp, long[]> outcomes = new EnumMap<>(WorkloadOp.class);
+        Map<WorkloadOp, Integer> fill = new EnumMap<>(WorkloadOp.class);
+        for (List<WorkloadOperation> stream : streams) {
+            for (WorkloadOperation operation : stream) {
+                fill.merge(operation.op, 1, Integer::sum);
+            }
+        }
+        for (Map.Entry<WorkloadOp, Integer> entry : fill.entrySet()) {
+            byOp.put(entry.getKey(), new long[entry.getValue()]);
+            outcomes.put(entry.getKey(), new long[2]);
+            entry.setValue(0);
+        }
+        for (int t = 0; t < threads; t++) {
+            List<WorkloadOperation> stream = streams.get(t);
+            for (int i = 0; i < stream.size(); i++) {
+                WorkloadOp op = stream.get(i).op;
+                int position = fill.merge(op, 1, Integer::sum) - 1;
+                byOp.get(op)[position] = latencies[t][i];
+                if (results[t][i] > 0) {
+                    outcomes.get(op)[results[t][i] - 1]++;
+                }
+            }
+        }
+        for (long[] values : byOp.values()) {
+            Arrays.sort(values);
+        }
+        return new Report(elapsed, byOp, outcomes);
     }
-}
-class ConsoleNotifier implements TaskConflictObserver, TaskUpdateObserver {
-    @Override
-    public void onTaskConflict(Task newTask, Task conflictingTask) {
-        System.err.println("\nALERT: New task '" + newTask.getDescription() + "' conflicts with existing task '" + conflictingTask.getDescription() + "'!");
+
+    // 0 on success, 1 on a conflict, 2 when the named task was not found.
+    private byte execute(WorkloadOperation operation) {
+        ScheduleManager schedule = registry.forCrewMember(operation.crewMember);
+        ScheduleResult result;
+        switch (operation.op) {
+            case ADD:
+                result = schedule.tryAddTask(TaskFactory.createTask(operation.description, operation.startTime, operation.endTime, operation.priority));
+                break;
+            case EDIT:
+                result = schedule.tryEditTask(operation.description, operation.newDescription, operation.startTime, operation.endTime, operation.priority);
+                break;
+            case REMOVE:
+                result = schedule.tryRemoveTask(operation.description);
+                break;
+            case COMPLETE:
+                result = schedule.tryMarkTaskAsCompleted(operation.description);
+                break;
+            case VIEW_ALL:
+                schedule.viewAllTasks();
+                return 0;
+            case VIEW_BY_PRIORITY:
+                schedule.viewTasksByPriority(Priority.valueOf(operation.priority));
+                return 0;
+            case VIEW_CREW:
+                registry.viewAllTasks();
+                return 0;
+            default:
+                throw new IllegalStateException("Unhandled operation " + operation.op);
+        }
+        return result.isConflict() ? (byte) 1 : result.isNotFound() ? (byte) 2 : (byte) 0;
     }
 
-    @Override
-    public void onTaskUpdate(Task updatedTask) {
-        System.out.println("\nINFO: Task '" + updatedTask.getDescription() + "' has been updated/completed.");
+    public static void main(String[] args) throws InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int crewSize = 16;
+        int operations = 100_000;
+        long seed = 42L;
+        double conflictRate = 0.1;
+        String mix = "add=35,edit=10,remove=10,complete=10,view_all=20,view_by_priority=10,view_crew=5";
+        boolean logging = false;
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "--crew":
+                    crewSize = Integer.parseInt(value);
+                    break;
+                case "--ops":
+                    operations = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--conflict-rate":
+                    conflictRate = Double.parseDouble(value);
+                    break;
+                case "--mix":
+                    mix = value;
+                    break;
+                case "--log":
+                    logging = true;
+                    i--;
+                    break;
+                default:
+                    System.err.println("Usage: java LoadReplayDriver [--threads n] [--crew n] [--ops total] [--seed n] "
+                            + "[--conflict-rate 0..1] [--mix add=35,edit=10,...] [--log]");
+                    System.exit(2);
+            }
+            i++;
+        }
+
+        WorkloadGenerator generator = new WorkloadGenerator(seed, crewSize, WorkloadGenerator.parseMix(mix), conflictRate);
+        List<List<WorkloadOperation>> streams = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            streams.add(generator.generate(t, threads, operations / threads + (t < operations % threads ? 1 : 0)));
+        }
+        Level previousLevel = AppLogger.getLogger().getLevel();
+        if (!logging) {
+            AppLogger.getLogger().setLevel(Level.OFF);
+        }
+        try {
+            System.out.printf("threads=%d crew=%d seed=%d conflict-rate=%s mix=%s%n", threads, crewSize, seed, conflictRate, mix);
+            System.out.print(new LoadReplayDriver(new CrewScheduleRegistry()).replay(streams));
+        } finally {
+            AppLogger.getLogger().setLevel(previousLevel);
+            AppLogger.shutdown();
+        }
     }
 }
 
-
 public class AstronautScheduleApp {
     private static final Logger logger = AppLogger.getLogger();
+    private static final int INITIAL_LISTING_CHARS = 8 * 1024;
+    private static final int MAX_RETAINED_LISTING_CHARS = 4 * 1024 * 1024;
+    private static StringBuilder listingBuffer = new StringBuilder(INITIAL_LISTING_CHARS);
 
     public static void main(String[] args) {
         Scanner scanner = new Scanner(System.in);
@@ -298,6 +6551,25 @@ public class AstronautScheduleApp {
         scheduleManager.addConflictObserver(notifier);
         scheduleManager.addUpdateObserver(notifier);
 
+        ScheduleJournal journal = null;
+        String journalDir = System.getProperty("astronaut.journal.dir");
+        if (journalDir != null) {
+            try {
+                journal = ScheduleJournal.open(Paths.get(journalDir),
+                        FsyncPolicy.valueOf(System.getProperty("astronaut.journal.fsync", "ALWAYS").toUpperCase()));
+                scheduleManager.attachJournal(journal);
+                long checkpointSeconds = Long.getLong("astronaut.checkpoint.intervalSeconds", 300L);
+                if (checkpointSeconds > 0) {
+                    scheduleManager.startPeriodicCheckpoints(Duration.ofSeconds(checkpointSeconds));
+                }
+            } catch (IOException e) {
+                System.err.println("Error: Could not open schedule journal: " + e.getMessage());
+                logger.log(Level.SEVERE, "Could not open schedule journal in " + journalDir, e);
+                AppLogger.shutdown();
+                return;
+            }
+        }
+
         logger.info("Astronaut Schedule Application Started.");
 
         while (true) {
@@ -309,6 +6581,8 @@ public class AstronautScheduleApp {
             System.out.println("5. Edit Task"); 
             System.out.println("6. Mark Task as Completed");
             System.out.println("7. Exit");
+            System.out.println("8. Import Tasks from File");
+            System.out.println("9. View Schedule Statistics");
             System.out.print("Enter your choice: ");
 
             String choice = scanner.nextLine();
@@ -336,7 +6610,15 @@ public class AstronautScheduleApp {
                     case "7":
                         System.out.println("Exiting application. Goodbye, Astronaut!");
                         logger.info("Astronaut Schedule Application Exited.");
+                        closeJournal(scheduleManager, journal);
+                        AppLogger.shutdown();
                         return;
+                    case "8":
+                        importTasks(scanner, scheduleManager);
+                        break;
+                    case "9":
+                        System.out.println(scheduleManager.stats());
+                        break;
                     default:
                         System.err.println("Invalid choice. Please try again.");
                         logger.warning("Invalid menu choice entered: " + choice);
@@ -349,7 +6631,7 @@ public class AstronautScheduleApp {
                 logger.log(Level.WARNING, "Invalid argument input", e);
             } catch (TaskConflictException | TaskNotFoundException e) {
                 System.err.println("Error: " + e.getMessage());
-                logger.log(Level.INFO, "Application specific error", e); 
+                logger.info(() -> "Application specific error: " + e.getMessage());
             } catch (Exception e) { 
                 System.err.println("An unexpected error occurred: " + e.getMessage());
                 logger.log(Level.SEVERE, "An unexpected error occurred", e);
@@ -357,6 +6639,19 @@ public class AstronautScheduleApp {
         }
     }
 
+    private static void closeJournal(ScheduleManager scheduleManager, ScheduleJournal journal) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            scheduleManager.stopPeriodicCheckpoints();
+            scheduleManager.checkpoint();
+            journal.close();
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to close schedule journal", e);
+        }
+    }
+
     private static void addTask(Scanner scanner, ScheduleManager scheduleManager)
             throws DateTimeParseException, IllegalArgumentException, TaskConflictException {
         System.out.print("Enter task description: ");
@@ -386,10 +6681,19 @@ public class AstronautScheduleApp {
         if (tasks.isEmpty()) {
             System.out.println("No tasks scheduled for the day.");
         } else {
-            System.out.println("\n--- All Scheduled Tasks ---");
-            for (int i = 0; i < tasks.size(); i++) {
-                System.out.println((i + 1) + ". " + tasks.get(i));
-            }
+            printListing("\n--- All Scheduled Tasks ---", tasks);
+        }
+    }
+
+    // The whole listing is rendered into one reused buffer and written in a single call.
+    private static void printListing(String header, List<Task> tasks) {
+        listingBuffer.setLength(0);
+        listingBuffer.append(header).append(System.lineSeparator());
+        TaskRenderer.appendListing(listingBuffer, tasks);
+        System.out.print(listingBuffer);
+        System.out.flush();
+        if (listingBuffer.capacity() > MAX_RETAINED_LISTING_CHARS) {
+            listingBuffer = new StringBuilder(INITIAL_LISTING_CHARS);
         }
     }
 
@@ -402,10 +6706,7 @@ public class AstronautScheduleApp {
             if (tasks.isEmpty()) {
                 System.out.println("No tasks found for priority: " + priority.name());
             } else {
-                System.out.println("\n--- Tasks with Priority " + priority.name() + " ---");
-                for (int i = 0; i < tasks.size(); i++) {
-                    System.out.println((i + 1) + ". " + tasks.get(i));
-                }
+                printListing("\n--- Tasks with Priority " + priority.name() + " ---", tasks);
             }
         } catch (IllegalArgumentException e) {
             System.err.println("Error: " + e.getMessage());
@@ -438,4 +6739,25 @@ public class AstronautScheduleApp {
         System.out.println("Task '" + description + "' marked as completed.");
     }
 
+    private static void importTasks(Scanner scanner, ScheduleManager scheduleManager) {
+        System.out.print("Enter path of CSV/TSV file to import (description,start,end,priority): ");
+        String path = scanner.nextLine().trim();
+        ImportReport report;
+        try {
+            report = new TaskImporter(scheduleManager).importFile(Paths.get(path));
+        } catch (IOException e) {
+            System.err.println("Error: Could not read file " + path + ": " + e.getMessage());
+            logger.log(Level.WARNING, "Task import failed", e);
+            return;
+        }
+        System.out.println("Import complete: " + report);
+        List<String> errors = report.getErrors();
+        for (int i = 0; i < Math.min(errors.size(), 10); i++) {
+            System.err.println("  " + errors.get(i));
+        }
+        if (report.getErrorCount() > 10) {
+            System.err.println("  ... " + (report.getErrorCount() - 10) + " more errors.");
+        }
+    }
+
 }